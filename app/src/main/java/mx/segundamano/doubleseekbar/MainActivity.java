@@ -7,6 +7,7 @@ import android.widget.EditText;
 import android.widget.SeekBar;
 import android.widget.TextView;
 
+import mx.segundamano.seekbars.ChangeSource;
 import mx.segundamano.seekbars.DoubleSeekbarView;
 
 public class MainActivity extends AppCompatActivity {
@@ -28,14 +29,17 @@ public class MainActivity extends AppCompatActivity {
         doubleSeekbarView.setEnabled(false);
 
         assert doubleSeekbarView != null;
-        doubleSeekbarView.setOnValuesChangeListener(new DoubleSeekbarView.OnValuesChangeListener() {
+        doubleSeekbarView.setOnLongValuesChangeListener(new DoubleSeekbarView.OnLongValuesChangeListener() {
             @Override
-            public void onValuesChange(int minValue, int maxValue) {
+            public void onValuesChange(long minValue, long maxValue, int source) {
                 assert seekbarValues != null;
                 seekbarValues.setText("Min: " + minValue + " - Max: " + maxValue);
 
-                minAct.setText(String.valueOf(minValue));
-                maxAct.setText(String.valueOf(maxValue));
+                //Programmatic changes come from the inputs, don't write them back
+                if(source != ChangeSource.PROGRAMMATIC) {
+                    minAct.setText(String.valueOf(minValue));
+                    maxAct.setText(String.valueOf(maxValue));
+                }
             }
         });
 
@@ -0,0 +1,85 @@
+package mx.segundamano.seekbars;
+
+import java.util.Arrays;
+
+/**
+ * Values that attract the pointer while it is dragged near them, like round prices.
+ * Anchors are kept sorted, so finding the one near a position is a binary search.
+ */
+final class AnchorSet {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] anchors = EMPTY;
+    private float radius;
+
+    /**
+     * @param anchors Anchor values sorted in ascending order, null for none
+     * @param radius Distance in pixels at which an anchor attracts the pointer
+     */
+    void set(long[] anchors, float radius) {
+        if(radius < 0) {
+            throw new IllegalArgumentException("Anchor radius should not be negative");
+        }
+        if(anchors == null) {
+            this.anchors = EMPTY;
+            this.radius = radius;
+            return;
+        }
+        for(int i = 1; i < anchors.length; i++) {
+            if(anchors[i] < anchors[i - 1]) {
+                throw new IllegalArgumentException("Anchors should be sorted in ascending order");
+            }
+        }
+
+        this.anchors = anchors.clone();
+        this.radius = radius;
+    }
+
+    long[] get() {
+        return anchors.clone();
+    }
+
+    float getRadius() {
+        return radius;
+    }
+
+    boolean isEmpty() {
+        return anchors.length == 0;
+    }
+
+    long valueAt(int index) {
+        return anchors[index];
+    }
+
+    /**
+     * Find the visible anchor nearest to a pointer position, if it is inside the radius
+     * @param scale Scale the pointer is drawn with
+     * @param drawValue Pointer position in pixels
+     * @return Index of the anchor, -1 if there is none near
+     */
+    int find(ValueScale scale, float drawValue) {
+        if(anchors.length == 0) {
+            return -1;
+        }
+
+        int index = Arrays.binarySearch(anchors, scale.rawValueAt(drawValue));
+        if(index >= 0) {
+            return index;
+        }
+
+        int insertion = -index - 1;
+        int nearest = -1;
+        float nearestDistance = radius;
+        for(int i = insertion - 1; i <= insertion; i++) {
+            if(i < 0 || i >= anchors.length || !scale.isVisible(anchors[i])) {
+                continue;
+            }
+            float distance = Math.abs(scale.positionOf(anchors[i]) - drawValue);
+            if(distance <= nearestDistance) {
+                nearest = i;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,83 @@
+package mx.segundamano.seekbars;
+
+import android.graphics.Bitmap;
+import android.support.v4.util.LongSparseArray;
+
+import java.util.ArrayList;
+
+/**
+ * Reusable bitmaps keyed by size, so rendering many previews of the same size does not
+ * allocate a new bitmap for each one. Safe to use from any thread.
+ */
+public class BitmapPool {
+    private final LongSparseArray<ArrayList<Bitmap>> pool = new LongSparseArray<>();
+    private final long maxBytes;
+    private long pooledBytes;
+
+    /**
+     * @param maxBytes Max count of bytes kept by released bitmaps, extra bitmaps are recycled
+     */
+    public BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Obtain a bitmap of the given size, reused when one was released before
+     * @return ARGB_8888 bitmap, its content is undefined
+     */
+    public synchronized Bitmap acquire(int width, int height) {
+        ArrayList<Bitmap> bitmaps = pool.get(key(width, height));
+        if(bitmaps != null && !bitmaps.isEmpty()) {
+            Bitmap bitmap = bitmaps.remove(bitmaps.size() - 1);
+            pooledBytes -= bitmap.getByteCount();
+            return bitmap;
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * Give back a bitmap that is not shown anymore, so it can be reused
+     * @param bitmap Bitmap obtained from acquire
+     */
+    public synchronized void release(Bitmap bitmap) {
+        if(bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+
+        if(pooledBytes + bitmap.getByteCount() > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+
+        long key = key(bitmap.getWidth(), bitmap.getHeight());
+        ArrayList<Bitmap> bitmaps = pool.get(key);
+        if(bitmaps == null) {
+            bitmaps = new ArrayList<>();
+            pool.put(key, bitmaps);
+        }
+        bitmaps.add(bitmap);
+        pooledBytes += bitmap.getByteCount();
+    }
+
+    /**
+     * Recycle all the pooled bitmaps
+     */
+    public synchronized void clear() {
+        for(int i = 0; i < pool.size(); i++) {
+            ArrayList<Bitmap> bitmaps = pool.valueAt(i);
+            for(int j = 0; j < bitmaps.size(); j++) {
+                bitmaps.get(j).recycle();
+            }
+        }
+        pool.clear();
+        pooledBytes = 0;
+    }
+
+    public synchronized long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    private static long key(int width, int height) {
+        return ((long) width << 32) | (height & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,18 @@
+package mx.segundamano.seekbars;
+
+/**
+ * Origin of a value change, reported to the listeners along with the new values
+ */
+public final class ChangeSource {
+    /** The user moved a pointer */
+    public static final int TOUCH = 0;
+    /** A setter was called by the app */
+    public static final int PROGRAMMATIC = 1;
+    /** Values were restored from a saved state */
+    public static final int RESTORE = 2;
+    /** The user adjusted a value step by step, with accessibility actions or keys */
+    public static final int ADJUSTMENT = 3;
+
+    private ChangeSource() {
+    }
+}
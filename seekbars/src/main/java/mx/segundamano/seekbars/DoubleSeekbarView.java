@@ -1,24 +1,32 @@
 package mx.segundamano.seekbars;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
-import android.os.Parcel;
+import android.os.Build;
+import android.os.Bundle;
 import android.os.Parcelable;
 import android.support.v4.content.ContextCompat;
+import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
+import android.util.DisplayMetrics;
 import android.util.Log;
 import android.util.TypedValue;
+import android.view.KeyEvent;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.view.accessibility.AccessibilityEvent;
 import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.RemoteViews.RemoteView;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.DataFormatException;
 
 /**
@@ -32,6 +40,8 @@ public class DoubleSeekbarView extends View {
     private static final int NO_ALPHA = 0xFF;
     private static final int ALPHA = 0x99;
     private static final int TIMEOUT_SEND_ACCESSIBILITY_EVENT = 200;
+    private static final int MIN_VISIBLE_STEPS = 4;
+    private static final long PREDICTION_MILLIS = 16;
     private AccessibilityEventSender mAccessibilityEventSender;
 
     //Drawing values
@@ -52,25 +62,122 @@ public class DoubleSeekbarView extends View {
     private RectF guide = new RectF();
     private RectF range = new RectF();
 
+    //Value labels
+    private ValueLabel valueLabel;
+    private boolean showLabels;
+    private float labelBottom;
+
     //Drawing paints
     private Paint paintGuide = new Paint();
     private Paint paintRange = new Paint();
     private Paint paintPointers = new Paint();
 
     //Data values
-    private int dataMin;
-    private int dataMax;
-    private int minDataValue;
-    private int maxDataValue;
-    private int steps;
-    private List<Step> stepList;
+    private long dataMin;
+    private long dataMax;
+    private long minDataValue;
+    private long maxDataValue;
+    private long steps;
+    private int decimalPlaces;
+    private ValueScale scale = new ValueScale();
+    private boolean scaleDirty = true;
+    private boolean adaptiveResolution;
+
+    //Distribution of the data, for counts and the quantile scale
+    private ValueDistribution distribution;
+    private boolean quantileScale;
+
+    //Zoom into a window of the range
+    private boolean zoomEnabled;
+    private boolean zoomed;
+    private boolean zooming;
+    private long viewMin;
+    private long viewMax;
+    private long touchStartMin;
+    private long touchStartMax;
+    private float previousFocusX;
+    private ScaleGestureDetector scaleDetector;
+    private EdgeIndicator edgeIndicator = new EdgeIndicator();
+
+    //Values attracting the pointers
+    private AnchorSet anchors = new AnchorSet();
+
+    //Values that can not be selected
+    private ExcludedIntervals excluded = new ExcludedIntervals();
+    private Paint paintExcluded = new Paint();
+    private float[] excludedLines = new float[0];
+    private int excludedLineCount;
+
+    //Low latency input, the pointer is drawn ahead of the finger
+    private boolean lowLatency;
+    private VelocityEstimator velocityEstimator = new VelocityEstimator();
+
+    //Predictions of the values a drag settles on
+    private final SettlePredictor settlePredictor = new SettlePredictor();
+    private OnSettlePredictionListener settleListener;
+
+    //Records the touch events for replaying them later
+    private GestureTraceRecorder traceRecorder;
+
+    //D-pad and keyboard stepping, once the view is focusable (keyStepping attribute)
+    private KeyStepper keyStepper = new KeyStepper(this, new KeyTarget());
+
+    //Step ticks shown while zoomed
+    private float tickSpacing;
+    private float tickHeight;
+    private float[] tickPositions = new float[0];
+    private float[] tickLines = new float[0];
+    private int tickCount;
+
+    //Releases the caches under memory pressure while attached
+    private final ComponentCallbacks2 trimCallbacks = new TrimCallbacks();
+    private final Rect visibleRect = new Rect();
 
     //Listener for callback values changes
     public interface OnValuesChangeListener {
         void onValuesChange(int minValue, int maxValue);
     }
 
+    /**
+     * Listener for values changes in the whole long range. With decimal places set, the values
+     * are the unscaled fixed-point values, for example centavos when there are 2 decimal places.
+     * The source is one of the {@link ChangeSource} constants.
+     */
+    public interface OnLongValuesChangeListener {
+        void onValuesChange(long minValue, long maxValue, int source);
+    }
+
+    /**
+     * Listener for the values a drag is likely to settle on, reported while the finger is still down
+     * so the results for them can be prefetched. The final values still come from the value
+     * listeners, a prediction that does not match them should be discarded.
+     */
+    public interface OnSettlePredictionListener {
+        void onSettlePredicted(long minValue, long maxValue);
+    }
+
     private OnValuesChangeListener listener;
+    private OnLongValuesChangeListener longListener;
+    private final ListenerRegistry<OnLongValuesChangeListener> listeners = new ListenerRegistry<>();
+    private boolean dispatching;
+
+    //Group this seek bar belongs to, changes are deferred while it is in a transaction
+    private SeekbarGroup group;
+    private int deferredSource;
+
+    //Persistent state across process death
+    private SeekbarStateStore stateStore;
+    private String stateKey;
+
+    //Values posted from other threads, applied once per frame
+    private final AtomicReference<PendingUpdate> pendingUpdate = new AtomicReference<>();
+    private final ValuesAnimation valuesAnimation = new ValuesAnimation();
+    private final Runnable applyPendingUpdate = new Runnable() {
+        @Override
+        public void run() {
+            applyPendingUpdate();
+        }
+    };
 
     public DoubleSeekbarView(Context context) {
         this(context, null);
@@ -80,20 +187,28 @@ public class DoubleSeekbarView extends View {
         super(context, attrs);
         setSaveEnabled(true);
 
+        valueLabel = new ValueLabel(getResources().getDisplayMetrics());
+
         TypedArray ta = context.getTheme().obtainStyledAttributes(attrs, R.styleable.seekbar, 0, 0);
         try{
             setColors(context, ta);
             setValues(ta);
+            setLabels(context, ta);
+            valueLabel.setDecimalPlaces(decimalPlaces);
         } finally {
             ta.recycle();
         }
 
         paintPointers.setAntiAlias(true);
         paintPointers.setStyle(Paint.Style.FILL);
+        paintExcluded.setAntiAlias(true);
+        paintGuide.setStrokeWidth(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1, getResources().getDisplayMetrics()));
 
-        stepList = new ArrayList<>();
         normalRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 9, getResources().getDisplayMetrics());
         pressedRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 12, getResources().getDisplayMetrics());
+        tickSpacing = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 6, getResources().getDisplayMetrics());
+        tickHeight = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 4, getResources().getDisplayMetrics());
+        settlePredictor.setThreshold(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 100, getResources().getDisplayMetrics()));
 
         normalPointers();
     }
@@ -102,12 +217,26 @@ public class DoubleSeekbarView extends View {
         paintPointers.setColor(ta.getColor(R.styleable.seekbar_pointerColor, ContextCompat.getColor(context, R.color.defaultPointerColor)));
         paintRange.setColor(ta.getColor(R.styleable.seekbar_guideColor, ContextCompat.getColor(context, R.color.defaultGuideColor)));
         paintGuide.setColor(ta.getColor(R.styleable.seekbar_baseColor,ContextCompat.getColor(context, R.color.defaultBaseColor)));
+        paintExcluded.setColor(ta.getColor(R.styleable.seekbar_excludedColor, ContextCompat.getColor(context, R.color.defaultExcludedColor)));
+    }
+
+    private void setLabels(Context context, TypedArray ta) {
+        showLabels = ta.getBoolean(R.styleable.seekbar_showLabels, false);
+        lowLatency = ta.getBoolean(R.styleable.seekbar_lowLatency, false);
+        adaptiveResolution = ta.getBoolean(R.styleable.seekbar_adaptiveResolution, false);
+        if(ta.getBoolean(R.styleable.seekbar_keyStepping, false)) {
+            setFocusable(true);
+        }
+        valueLabel.setPrefix(ta.getString(R.styleable.seekbar_labelPrefix));
+        valueLabel.setBubbleColor(ta.getColor(R.styleable.seekbar_labelColor, ContextCompat.getColor(context, R.color.defaultLabelColor)));
+        valueLabel.setTextColor(ta.getColor(R.styleable.seekbar_labelTextColor, ContextCompat.getColor(context, R.color.defaultLabelTextColor)));
     }
 
     private void setValues(TypedArray ta) {
         minDataValue = ta.getInt(R.styleable.seekbar_minVal, 0);
         maxDataValue = ta.getInt(R.styleable.seekbar_maxVal, 10);
         steps = ta.getInt(R.styleable.seekbar_steps, 1);
+        decimalPlaces = ta.getInt(R.styleable.seekbar_decimalPlaces, 0);
         dataMin = minDataValue;
         dataMax = maxDataValue;
     }
@@ -124,20 +253,67 @@ public class DoubleSeekbarView extends View {
         return listener;
     }
 
+    /**
+     * Set OnLongValuesChangeListener for receive values changes as long
+     * @param l
+     */
+    public void setOnLongValuesChangeListener(OnLongValuesChangeListener l) {
+        longListener = l;
+    }
+
+    public OnLongValuesChangeListener getLongListener() {
+        return longListener;
+    }
+
+    /**
+     * Add a listener for values changes, besides the one set with setter. Listeners can be added and
+     * removed from any thread, they are always notified on the UI thread
+     * @param l Listener to add
+     */
+    public void addOnLongValuesChangeListener(OnLongValuesChangeListener l) {
+        listeners.add(l, false);
+    }
+
+    /**
+     * Add a listener for values changes
+     * @param l Listener to add
+     * @param weak true to hold the listener with a weak reference, so the seek bar does not keep it alive
+     */
+    public void addOnLongValuesChangeListener(OnLongValuesChangeListener l, boolean weak) {
+        listeners.add(l, weak);
+    }
+
+    /**
+     * Remove a listener added with addOnLongValuesChangeListener
+     * @param l Listener to remove
+     */
+    public void removeOnLongValuesChangeListener(OnLongValuesChangeListener l) {
+        listeners.remove(l);
+    }
+
     /**
      * Set min value can be selected. By default this value is 0
      * @param minValue Min value it can be selected
      */
     public void setMinValue(int minValue) {
+        setMinValue((long) minValue);
+    }
+
+    /**
+     * Set min value can be selected. By default this value is 0
+     * @param minValue Min value it can be selected
+     */
+    public void setMinValue(long minValue) {
         if(minValue >= dataMax) {
             throw new IllegalArgumentException();
         }
 
         this.dataMin = minValue;
+        invalidateScale();
         if(minDataValue < dataMin){
             minDataValue = dataMin;
+            notifyValuesChange(ChangeSource.PROGRAMMATIC);
         }
-        setScale();
     }
 
     /**
@@ -145,6 +321,14 @@ public class DoubleSeekbarView extends View {
      * @return Min value set
      */
     public int getMinValue() {
+        return (int) dataMin;
+    }
+
+    /**
+     * Obtain the min value set in the seek bar as long
+     * @return Min value set
+     */
+    public long getMinValueAsLong() {
         return dataMin;
     }
 
@@ -153,15 +337,24 @@ public class DoubleSeekbarView extends View {
      * @param maxValue Max value it can be selected
      */
     public void setMaxValue(int maxValue) {
+        setMaxValue((long) maxValue);
+    }
+
+    /**
+     * Set max value can be selected. By default this value is 10
+     * @param maxValue Max value it can be selected
+     */
+    public void setMaxValue(long maxValue) {
         if(maxValue <= dataMin) {
             throw new IllegalArgumentException();
         }
 
         this.dataMax = maxValue;
+        invalidateScale();
         if(maxDataValue > dataMax) {
             maxDataValue = dataMax;
+            notifyValuesChange(ChangeSource.PROGRAMMATIC);
         }
-        setScale();
     }
 
     /**
@@ -169,6 +362,14 @@ public class DoubleSeekbarView extends View {
      * @return Max value set
      */
     public int getMaxValue() {
+        return (int) dataMax;
+    }
+
+    /**
+     * Obtain the max value set in the seek bar as long
+     * @return Max value set
+     */
+    public long getMaxValueAsLong() {
         return dataMax;
     }
 
@@ -177,14 +378,40 @@ public class DoubleSeekbarView extends View {
      * @param minValue Min value to be set between min value and max value.
      */
     public void setActMinValue(int minValue) {
+        setActMinValue((long) minValue);
+    }
+
+    /**
+     * Set min actual value in seek bar
+     * @param minValue Min value to be set between min value and max value.
+     */
+    public void setActMinValue(long minValue) {
+        setActMinValue(minValue, true);
+    }
+
+    /**
+     * Set min actual value in seek bar. Setting the value it already has does nothing, and values
+     * set from inside a listener callback are applied without notifying the listeners again.
+     * @param minValue Min value to be set between min value and max value.
+     * @param notify false to apply the value without notifying the listeners
+     */
+    public void setActMinValue(long minValue, boolean notify) {
         if(minValue < dataMin) {
             new DataFormatException("Value is minor than minimum data set").printStackTrace();
         } else if (minValue >= maxDataValue) {
             new IllegalArgumentException("Value is major than the actual max value").printStackTrace();
         }
 
+        if(minDataValue == minValue) {
+            return;
+        }
+
         minDataValue = minValue;
         updateMinPositionByStep(minDataValue);
+        if(notify) {
+            notifyValuesChange(ChangeSource.PROGRAMMATIC);
+        }
+        invalidate();
     }
 
     /**
@@ -192,6 +419,14 @@ public class DoubleSeekbarView extends View {
      * @return Actual min value selected
      */
     public int getMinDataValue() {
+        return (int) minDataValue;
+    }
+
+    /**
+     * Get the actual min value in seek bar as long
+     * @return Actual min value selected
+     */
+    public long getMinDataValueAsLong() {
         return minDataValue;
     }
 
@@ -200,14 +435,69 @@ public class DoubleSeekbarView extends View {
      * @param maxValue Max value to be set between min value and max value
      */
     public void setActMaxValue(int maxValue) {
+        setActMaxValue((long) maxValue);
+    }
+
+    /**
+     * Set max actual value in seek bar
+     * @param maxValue Max value to be set between min value and max value
+     */
+    public void setActMaxValue(long maxValue) {
+        setActMaxValue(maxValue, true);
+    }
+
+    /**
+     * Set max actual value in seek bar. Setting the value it already has does nothing, and values
+     * set from inside a listener callback are applied without notifying the listeners again.
+     * @param maxValue Max value to be set between min value and max value
+     * @param notify false to apply the value without notifying the listeners
+     */
+    public void setActMaxValue(long maxValue, boolean notify) {
         if(maxValue < minDataValue) {
             throw new IllegalArgumentException("Value is minor than the actual min value");
         } else if (maxValue > dataMax) {
             throw new IllegalArgumentException("Value is major than maximum data set");
         }
 
+        if(maxDataValue == maxValue) {
+            return;
+        }
+
+        maxDataValue = maxValue;
+        updateMaxPositionByStep(maxDataValue);
+        if(notify) {
+            notifyValuesChange(ChangeSource.PROGRAMMATIC);
+        }
+        invalidate();
+    }
+
+    /**
+     * Set both actual values at once, notifying the listeners a single time
+     * @param minValue Min value to be set between min value and max value
+     * @param maxValue Max value to be set between min value and max value
+     * @param notify false to apply the values without notifying the listeners
+     */
+    public void setActValues(long minValue, long maxValue, boolean notify) {
+        if(minValue > maxValue) {
+            throw new IllegalArgumentException("Min value should not be greater than max value");
+        } else if(minValue < dataMin) {
+            throw new IllegalArgumentException("Value is minor than minimum data set");
+        } else if(maxValue > dataMax) {
+            throw new IllegalArgumentException("Value is major than maximum data set");
+        }
+
+        if(minDataValue == minValue && maxDataValue == maxValue) {
+            return;
+        }
+
+        minDataValue = minValue;
         maxDataValue = maxValue;
+        updateMinPositionByStep(minDataValue);
         updateMaxPositionByStep(maxDataValue);
+        if(notify) {
+            notifyValuesChange(ChangeSource.PROGRAMMATIC);
+        }
+        invalidate();
     }
 
     /**
@@ -215,6 +505,14 @@ public class DoubleSeekbarView extends View {
      * @return Actual max value selected
      */
     public int getMaxDataValue() {
+        return (int) maxDataValue;
+    }
+
+    /**
+     * Get the actual max value in seek bar as long
+     * @return Actual max value selected
+     */
+    public long getMaxDataValueAsLong() {
         return maxDataValue;
     }
 
@@ -224,38 +522,162 @@ public class DoubleSeekbarView extends View {
      * @param steps Value of unit between each step
      */
     public void setSteps(int steps) {
+        setSteps((long) steps);
+    }
+
+    /**
+     * Set the value of unit that each step will have between min value and max value.
+     * The pointer will be set in the nearest step. By default this value is 1
+     * @param steps Value of unit between each step
+     */
+    public void setSteps(long steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("Steps should be greater than zero");
+        }
+
         this.steps = steps;
-        setScale();
+        invalidateScale();
     }
 
-    private void updateMinPositionByStep(int minActValue) {
-        if(stepList == null || stepList.isEmpty()) {
-            this.minDataValue = minActValue;
+    public long getStepsAsLong() {
+        return steps;
+    }
+
+    /**
+     * Use the values as fixed-point decimals with the given count of decimal places. Values keep
+     * being set and reported as long, for example 150050 with 2 decimal places is 1500.50
+     * @param decimalPlaces Count of decimal places, between 0 and 18. By default this value is 0
+     */
+    public void setDecimalPlaces(int decimalPlaces) {
+        if(decimalPlaces < 0 || decimalPlaces > FixedPoint.MAX_DECIMAL_PLACES) {
+            throw new IllegalArgumentException("Decimal places should be between 0 and " + FixedPoint.MAX_DECIMAL_PLACES);
+        }
+
+        this.decimalPlaces = decimalPlaces;
+        valueLabel.setDecimalPlaces(decimalPlaces);
+        invalidate();
+    }
+
+    public int getDecimalPlaces() {
+        return decimalPlaces;
+    }
+
+    /**
+     * Get the actual min value in seek bar as a decimal number, taking in count the decimal places
+     * @return Actual min value selected
+     */
+    public double getMinDecimalValue() {
+        return FixedPoint.toDouble(minDataValue, decimalPlaces);
+    }
+
+    /**
+     * Get the actual max value in seek bar as a decimal number, taking in count the decimal places
+     * @return Actual max value selected
+     */
+    public double getMaxDecimalValue() {
+        return FixedPoint.toDouble(maxDataValue, decimalPlaces);
+    }
+
+    /**
+     * Request a new range from any thread. The latest requested values are applied on the UI
+     * thread on the next frame, so bursts of requests cause a single rebuild and redraw.
+     * @param dataMin Min value it can be selected
+     * @param dataMax Max value it can be selected
+     * @param steps Value of unit between each step
+     */
+    public void postRange(long dataMin, long dataMax, long steps) {
+        if(dataMin >= dataMax) {
+            throw new IllegalArgumentException("Min value should be less than max value");
+        } else if(steps <= 0) {
+            throw new IllegalArgumentException("Steps should be greater than zero");
+        }
+
+        schedule(new PendingUpdate(PendingUpdate.RANGE | PendingUpdate.STEPS, dataMin, dataMax, steps, 0, 0));
+    }
+
+    /**
+     * Request new actual values from any thread. The latest requested values are applied on the
+     * UI thread on the next frame, clamped to the range it has at that moment.
+     * @param minValue Min value to be set between min value and max value
+     * @param maxValue Max value to be set between min value and max value
+     */
+    public void postActValues(long minValue, long maxValue) {
+        if(minValue > maxValue) {
+            throw new IllegalArgumentException("Min value should not be greater than max value");
+        }
+
+        schedule(new PendingUpdate(PendingUpdate.MIN_VALUE | PendingUpdate.MAX_VALUE, 0, 0, 0, minValue, maxValue));
+    }
+
+    private void schedule(PendingUpdate update) {
+        if(!PendingUpdate.post(pendingUpdate, update)) {
             return;
         }
 
-        for(Step step : stepList) {
-            if(step.value == minActValue && minActValue < maxDataValue){
-                isLeftPressed(step.drawValue);
-                updateStepPositions(true, step.drawValue);
-                break;
-            }
+        if(ViewCompat.isAttachedToWindow(this)) {
+            ViewCompat.postOnAnimation(this, applyPendingUpdate);
+        } else {
+            PendingUpdate.MAIN_HANDLER.post(applyPendingUpdate);
         }
     }
 
-    private void updateMaxPositionByStep(int maxActValue) {
-        if(stepList == null || stepList.isEmpty()) {
-            this.maxDataValue = maxActValue;
+    private void applyPendingUpdate() {
+        PendingUpdate update = pendingUpdate.getAndSet(null);
+        if(update == null) {
             return;
         }
 
-        for(Step step : stepList) {
-            if(step.value == maxActValue && maxActValue > minDataValue){
-                isLeftPressed(step.drawValue);
-                updateStepPositions(false, step.drawValue);
-                break;
-            }
+        if(update.has(PendingUpdate.RANGE)) {
+            dataMin = update.dataMin;
+            dataMax = update.dataMax;
+        }
+        if(update.has(PendingUpdate.STEPS)) {
+            steps = update.steps;
+        }
+        if(update.has(PendingUpdate.RANGE) || update.has(PendingUpdate.STEPS)) {
+            invalidateScale();
+        }
+
+        long minValue = update.has(PendingUpdate.MIN_VALUE) ? update.minValue : minDataValue;
+        long maxValue = update.has(PendingUpdate.MAX_VALUE) ? update.maxValue : maxDataValue;
+        minValue = Math.max(dataMin, Math.min(dataMax, minValue));
+        maxValue = Math.max(minValue, Math.min(dataMax, maxValue));
+        if(minValue != minDataValue || maxValue != maxDataValue) {
+            minDataValue = minValue;
+            maxDataValue = maxValue;
+            updateMinPositionByStep(minDataValue);
+            updateMaxPositionByStep(maxDataValue);
+            notifyValuesChange(ChangeSource.PROGRAMMATIC);
+        }
+        invalidate();
+    }
+
+    /**
+     * Map the min data value to its pointer position. While the scale is not built yet the value
+     * is kept as data only and mapped to pixels the next time the scale is built.
+     * @param minActValue Data value to map
+     */
+    private void updateMinPositionByStep(long minActValue) {
+        if(scaleDirty) {
+            return;
+        }
+
+        drawMinActVal = scale.positionOf(minActValue);
+        updateRange();
+    }
+
+    /**
+     * Map the max data value to its pointer position. While the scale is not built yet the value
+     * is kept as data only and mapped to pixels the next time the scale is built.
+     * @param maxActValue Data value to map
+     */
+    private void updateMaxPositionByStep(long maxActValue) {
+        if(scaleDirty) {
+            return;
         }
+
+        drawMaxActVal = scale.positionOf(maxActValue);
+        updateRange();
     }
 
     /**
@@ -272,6 +694,7 @@ public class DoubleSeekbarView extends View {
      */
     public void setGuideBarColor(int color) {
         paintGuide.setColor(color);
+        invalidate();
     }
 
     /**
@@ -288,6 +711,7 @@ public class DoubleSeekbarView extends View {
      */
     public void setPaintRange(int color) {
         paintRange.setColor(color);
+        invalidate();
     }
 
     /**
@@ -304,81 +728,797 @@ public class DoubleSeekbarView extends View {
      */
     public void setPointersColor(int color) {
         paintPointers.setColor(color);
+        invalidate();
     }
 
-    @Override
-    public void setEnabled(boolean enabled) {
-        super.setEnabled(enabled);
+    /**
+     * Show a bubble with the actual values above the pointers
+     * @param showLabels true to show the value labels
+     */
+    public void setShowValueLabels(boolean showLabels) {
+        if(this.showLabels != showLabels) {
+            this.showLabels = showLabels;
+            //The height can be exact and not change, the guide moves to make room for the labels anyway
+            requestLayout();
+            updateGuidePosition();
+            invalidateScale();
+        }
+    }
 
-        paintPointers.setAlpha(enabled ? NO_ALPHA : ALPHA);
-        paintRange.setAlpha(enabled ? NO_ALPHA : ALPHA);
-        paintGuide.setAlpha(enabled ? NO_ALPHA : ALPHA);
+    public boolean isShowValueLabels() {
+        return showLabels;
+    }
 
+    /**
+     * Set the text shown before the value in the label, for example a currency symbol
+     * @param prefix Label prefix, null for none
+     */
+    public void setLabelPrefix(String prefix) {
+        valueLabel.setPrefix(prefix);
         invalidate();
     }
 
-    @Override
-    public CharSequence getAccessibilityClassName() {
-        return DoubleSeekbarView.class.getName();
+    public String getLabelPrefix() {
+        return valueLabel.getPrefix();
     }
 
-    @Override
-    public void onInitializeAccessibilityEvent(AccessibilityEvent event) {
-        super.onInitializeAccessibilityEvent(event);
-        event.setItemCount(getMinValue());
-        event.setCurrentItemIndex(getMinDataValue());
-        event.setItemCount(getMaxValue());
-        event.setCurrentItemIndex(getMaxDataValue());
+    /**
+     * Set the char used to separate thousands in the label. By default this value is ','
+     * @param separator Thousands separator
+     */
+    public void setLabelGroupingSeparator(char separator) {
+        valueLabel.setGroupingSeparator(separator);
+        invalidate();
     }
 
-    @Override
-    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
-        super.onInitializeAccessibilityNodeInfo(info);
+    /**
+     * Set the label bubble color value
+     * @param color Label bubble color value
+     */
+    public void setLabelColor(int color) {
+        valueLabel.setBubbleColor(color);
+        invalidate();
+    }
 
-        if (isEnabled()) {
-            info.addAction(-1000920);
-        }
+    public int getLabelColor() {
+        return valueLabel.getBubbleColor();
     }
 
-    private void scheduleAccessibilityEventSender() {
-        if (mAccessibilityEventSender == null) {
-            mAccessibilityEventSender = new AccessibilityEventSender();
-        } else {
-            removeCallbacks(mAccessibilityEventSender);
-        }
-        postDelayed(mAccessibilityEventSender, TIMEOUT_SEND_ACCESSIBILITY_EVENT);
+    /**
+     * Set the label text color value
+     * @param color Label text color value
+     */
+    public void setLabelTextColor(int color) {
+        valueLabel.setTextColor(color);
+        invalidate();
     }
 
-    private class AccessibilityEventSender implements Runnable {
-        public void run() {
-            sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_SELECTED);
+    public int getLabelTextColor() {
+        return valueLabel.getTextColor();
+    }
+
+    /**
+     * Allow narrowing the visible window of the range with a pinch, to select precise values in
+     * ranges much wider than the view. Moving the fingers while pinching moves the window
+     * @param zoomEnabled true to allow zooming
+     */
+    public void setZoomEnabled(boolean zoomEnabled) {
+        this.zoomEnabled = zoomEnabled;
+        if(zoomEnabled && scaleDetector == null) {
+            scaleDetector = new ScaleGestureDetector(getContext(), new ZoomListener());
         }
     }
 
-    @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        if(!isEnabled()) {
-            return false;
+    public boolean isZoomEnabled() {
+        return zoomEnabled;
+    }
+
+    /**
+     * Show only a window of the range. Values outside of it are shown as arrows at the edges of the guide
+     * @param viewMin First value shown
+     * @param viewMax Last value shown
+     */
+    public void setViewport(long viewMin, long viewMax) {
+        if(viewMin < dataMin || viewMax > dataMax) {
+            throw new IllegalArgumentException("Viewport is out of the data set");
+        } else if(viewMin >= viewMax) {
+            throw new IllegalArgumentException("Viewport min should be less than viewport max");
         }
 
-        switch (event.getAction() & MotionEvent.ACTION_MASK) {
-            case MotionEvent.ACTION_DOWN:
-                isLeftPressed(event.getX());
+        this.viewMin = viewMin;
+        this.viewMax = viewMax;
+        zoomed = true;
+        invalidateScale();
+    }
+
+    /**
+     * Show the whole range again
+     */
+    public void resetViewport() {
+        zoomed = false;
+        invalidateScale();
+    }
+
+    public long getViewportMin() {
+        return zoomed ? viewMin : dataMin;
+    }
+
+    public long getViewportMax() {
+        return zoomed ? viewMax : dataMax;
+    }
+
+    private long getMinViewportSpan() {
+        return steps > Long.MAX_VALUE / MIN_VISIBLE_STEPS ? Long.MAX_VALUE : steps * MIN_VISIBLE_STEPS;
+    }
+
+    private void readViewport() {
+        zoomed = scale.isZoomed();
+        viewMin = scale.getViewMin();
+        viewMax = scale.getViewMax();
+    }
+
+    private void updateTicks() {
+        tickCount = zoomed ? scale.stepPositions(tickPositions, tickSpacing) : 0;
+        for(int i = 0; i < tickCount; i++) {
+            tickLines[i * 4] = tickPositions[i];
+            tickLines[i * 4 + 1] = guideTop - tickHeight;
+            tickLines[i * 4 + 2] = tickPositions[i];
+            tickLines[i * 4 + 3] = guideBottom + tickHeight;
+        }
+    }
+
+    private void drawPointer(Canvas canvas, long value, float drawValue, float radius) {
+        if(!zoomed || scale.isVisible(value)) {
+            canvas.drawCircle(drawValue, drawMiddleHeight, radius, paintPointers);
+        } else {
+            edgeIndicator.draw(canvas, drawValue, drawMiddleHeight, radius, value < viewMin, paintPointers);
+        }
+    }
+
+    private class ZoomListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+        @Override
+        public boolean onScaleBegin(ScaleGestureDetector detector) {
+            if(scaleDirty) {
+                return false;
+            }
+
+            zooming = true;
+            previousFocusX = detector.getFocusX();
+            //The first finger already moved a pointer, a pinch should not change the values
+            if(minDataValue != touchStartMin || maxDataValue != touchStartMax) {
+                minDataValue = touchStartMin;
+                maxDataValue = touchStartMax;
+                updateMinPositionByStep(minDataValue);
+                updateMaxPositionByStep(maxDataValue);
+                notifyValuesChange(ChangeSource.TOUCH);
+            }
+            normalPointers();
+            return true;
+        }
+
+        @Override
+        public boolean onScale(ScaleGestureDetector detector) {
+            float focusX = detector.getFocusX();
+            if(scale.zoom(focusX, previousFocusX, detector.getScaleFactor(), getMinViewportSpan())) {
+                readViewport();
+                updateMinPositionByStep(minDataValue);
+                updateMaxPositionByStep(maxDataValue);
+                updateTicks();
+                updateExcludedLines();
+                invalidate();
+            }
+            previousFocusX = focusX;
+            return true;
+        }
+    }
+
+    /**
+     * Set values that attract the pointers while it is dragged near them, like round prices. The pointer
+     * stops exactly on an anchor even when it is not on a step
+     * @param anchors Anchor values sorted in ascending order, null to remove them
+     * @param radius Distance in pixels at which an anchor attracts the pointers
+     */
+    public void setAnchors(long[] anchors, float radius) {
+        this.anchors.set(anchors, radius);
+    }
+
+    public long[] getAnchors() {
+        return anchors.get();
+    }
+
+    /**
+     * Set intervals of values that can not be selected. They are drawn greyed and the pointers skip them
+     * @param starts First excluded value of each interval, null to remove them
+     * @param ends Last excluded value of each interval, at the same index of its start
+     */
+    public void setExcludedIntervals(long[] starts, long[] ends) {
+        excluded.set(starts, ends);
+        ensureLineBuffers();
+        updateExcludedLines();
+        invalidate();
+    }
+
+    /**
+     * Set the color of the excluded intervals
+     * @param color Excluded intervals color value
+     */
+    public void setExcludedColor(int color) {
+        paintExcluded.setColor(color);
+        invalidate();
+    }
+
+    public int getExcludedColor() {
+        return paintExcluded.getColor();
+    }
+
+    private void updateExcludedLines() {
+        excludedLineCount = scaleDirty ? 0 : excluded.fillLines(scale, drawMiddleHeight, excludedLines);
+    }
+
+    /**
+     * Value at a pointer position, the nearest anchor if there is one inside its radius,
+     * otherwise the nearest step, moved out of the excluded intervals
+     */
+    private long valueAt(float drawValue) {
+        int anchor = anchors.find(scale, drawValue);
+        long value = anchor >= 0 ? anchors.valueAt(anchor) : scale.valueAt(drawValue);
+        return excluded.nearestAllowed(value, scale);
+    }
+
+    /**
+     * Reduce the lag between the finger and the pointers drawn on fast drags. Touch events are
+     * dispatched as they arrive on Lollipop and later, and the moving pointer is drawn a frame ahead at the
+     * velocity of the finger. The values reported keep coming only from the real touch positions
+     * @param lowLatency true to enable the low latency mode
+     */
+    public void setLowLatency(boolean lowLatency) {
+        this.lowLatency = lowLatency;
+    }
+
+    public boolean isLowLatency() {
+        return lowLatency;
+    }
+
+    /**
+     * Report the values a drag is likely to settle on when the dragged pointer slows down below the
+     * settle velocity threshold. A drag that speeds up and slows down again reports again
+     * @param l Listener, or null to stop the predictions
+     */
+    public void setOnSettlePredictionListener(OnSettlePredictionListener l) {
+        settleListener = l;
+    }
+
+    public OnSettlePredictionListener getSettlePredictionListener() {
+        return settleListener;
+    }
+
+    /**
+     * @param pixelsPerSecond Speed below which the dragged pointer is considered to be settling.
+     * By default it is 100dp per second
+     */
+    public void setSettleVelocityThreshold(float pixelsPerSecond) {
+        settlePredictor.setThreshold(pixelsPerSecond);
+    }
+
+    public float getSettleVelocityThreshold() {
+        return settlePredictor.getThreshold();
+    }
+
+    /**
+     * Record the touch events reaching this seek bar, to replay them with a {@link GestureTraceReplayer}
+     * @param recorder Recorder to append the events to, or null to stop recording
+     */
+    public void setGestureTraceRecorder(GestureTraceRecorder recorder) {
+        traceRecorder = recorder;
+    }
+
+    public GestureTraceRecorder getGestureTraceRecorder() {
+        return traceRecorder;
+    }
+
+    private float predictPosition(float x) {
+        if(!lowLatency) {
+            return x;
+        }
+        return velocityEstimator.predict(x, PREDICTION_MILLIS, pressedRadius * 2);
+    }
+
+    /**
+     * Snap touches only to as many values as there are pixels in the guide, when there are more
+     * steps than that. The values between them can still be selected step by step with
+     * accessibility actions, or by zooming in
+     * @param adaptiveResolution true to limit the touch resolution to the guide pixels
+     */
+    public void setAdaptiveResolution(boolean adaptiveResolution) {
+        this.adaptiveResolution = adaptiveResolution;
+        invalidateScale();
+    }
+
+    public boolean isAdaptiveResolution() {
+        return adaptiveResolution;
+    }
+
+    /**
+     * Set the distribution of the values being filtered, like an exact {@link ValueHistogram} or a
+     * {@link QuantileSketch} of a large catalog. It is used to preview the count of values selected
+     * and by the quantile scale. It should not change while it is set, set it again after adding values
+     * @param distribution Distribution of the data, or null to remove it
+     */
+    public void setValueDistribution(ValueDistribution distribution) {
+        this.distribution = distribution;
+        if(quantileScale) {
+            invalidateScale();
+        }
+    }
+
+    public ValueDistribution getValueDistribution() {
+        return distribution;
+    }
+
+    /**
+     * Count of values between the actual min and max values, cheap enough to be called from the
+     * listeners while dragging
+     * @return The count, or -1 if there is no distribution set
+     */
+    public long getSelectedCount() {
+        return distribution == null ? -1 : distribution.count(minDataValue, maxDataValue);
+    }
+
+    /**
+     * Place the values along the guide by quantile of the distribution instead of linearly, so
+     * ranges with more values take more space. Zooming in shows the window linearly
+     * @param quantileScale true to use the quantile scale when there is a distribution set
+     */
+    public void setQuantileScale(boolean quantileScale) {
+        this.quantileScale = quantileScale;
+        invalidateScale();
+    }
+
+    public boolean isQuantileScale() {
+        return quantileScale;
+    }
+
+    /**
+     * Animate the pointers to the given values. All the seek bars animate from a single frame
+     * callback, and the listeners are notified once when the animation ends
+     * @param minValue Min value to be set between min value and max value
+     * @param maxValue Max value to be set between min value and max value
+     * @param durationMillis Duration of the animation
+     */
+    public void animateTo(long minValue, long maxValue, long durationMillis) {
+        if(minValue > maxValue || minValue < dataMin || maxValue > dataMax) {
+            throw new IllegalArgumentException("Values are out of the data set");
+        }
+
+        SeekbarAnimator animator = SeekbarAnimator.getInstance();
+        animator.cancel(valuesAnimation);
+        if(scaleDirty || !ViewCompat.isAttachedToWindow(this)) {
+            setActValues(minValue, maxValue, true);
+            return;
+        }
+
+        valuesAnimation.fromMin = minDataValue;
+        valuesAnimation.toMin = minValue;
+        valuesAnimation.fromMax = maxDataValue;
+        valuesAnimation.toMax = maxValue;
+        valuesAnimation.durationNanos = durationMillis * 1000000L;
+        valuesAnimation.startTimeNanos = -1;
+        animator.start(valuesAnimation);
+    }
+
+    /**
+     * Stop the running animation, leaving the pointers on the steps they reached. The listeners
+     * are notified if they moved
+     */
+    public void cancelAnimation() {
+        SeekbarAnimator animator = SeekbarAnimator.getInstance();
+        if(!animator.isRunning(valuesAnimation)) {
+            return;
+        }
+
+        animator.cancel(valuesAnimation);
+        if(minDataValue != valuesAnimation.fromMin || maxDataValue != valuesAnimation.fromMax) {
+            notifyValuesChange(ChangeSource.PROGRAMMATIC);
+        }
+    }
+
+    public boolean isAnimating() {
+        return SeekbarAnimator.getInstance().isRunning(valuesAnimation);
+    }
+
+    private class ValuesAnimation implements SeekbarAnimator.Target {
+        long fromMin;
+        long toMin;
+        long fromMax;
+        long toMax;
+        long durationNanos;
+        long startTimeNanos;
+
+        @Override
+        public boolean onAnimationFrame(long frameTimeNanos) {
+            if(startTimeNanos < 0) {
+                startTimeNanos = frameTimeNanos;
+            }
+            float fraction = durationNanos <= 0 ? 1f : Math.min(1f, (frameTimeNanos - startTimeNanos) / (float) durationNanos);
+            float interpolated = SeekbarAnimator.interpolate(fraction);
+
+            //Values in between stay on the step grid, the last ones are the exact targets
+            if(fraction < 1f) {
+                minDataValue = scale.snap(SeekbarAnimator.lerp(fromMin, toMin, interpolated));
+                maxDataValue = scale.snap(SeekbarAnimator.lerp(fromMax, toMax, interpolated));
+            } else {
+                minDataValue = toMin;
+                maxDataValue = toMax;
+            }
+            updateMinPositionByStep(minDataValue);
+            updateMaxPositionByStep(maxDataValue);
+            invalidate();
+            return fraction < 1f;
+        }
+
+        @Override
+        public void onAnimationEnd() {
+            notifyValuesChange(ChangeSource.PROGRAMMATIC);
+        }
+    }
+
+    /**
+     * Keep the range and values of this seek bar in a store that survives process death. If the
+     * store has a state for the key it is restored, once the store is loaded
+     * @param store Store to keep the state in, null to stop keeping it
+     * @param key Id of this seek bar in the store
+     */
+    public void setStateStore(final SeekbarStateStore store, final String key) {
+        stateStore = store;
+        stateKey = key;
+        if(store == null) {
+            return;
+        }
+
+        final long[] stateBeforeLoad = stateValues();
+        store.get(key, new SeekbarStateStore.Callback() {
+            @Override
+            public void onStateLoaded(long[] values) {
+                //A range or value set while the store was loading is newer than the stored one
+                if(stateStore == store && key.equals(stateKey)
+                        && Arrays.equals(stateBeforeLoad, stateValues())) {
+                    restoreState(values);
+                }
+            }
+        });
+    }
+
+    private void persistState() {
+        if(stateStore != null) {
+            stateStore.put(stateKey, stateValues());
+        }
+    }
+
+    private long[] stateValues() {
+        return new long[]{dataMin, dataMax, steps, minDataValue, maxDataValue};
+    }
+
+    private void restoreState(long[] values) {
+        if(values.length < 5 || values[0] >= values[1] || values[2] <= 0
+                || values[3] < values[0] || values[4] > values[1] || values[3] > values[4]) {
+            return;
+        }
+
+        dataMin = values[0];
+        dataMax = values[1];
+        steps = values[2];
+        minDataValue = values[3];
+        maxDataValue = values[4];
+        invalidateScale();
+        notifyValuesChange(ChangeSource.RESTORE);
+    }
+
+    /**
+     * Take a copy of the range, values and colors, to draw it off screen with {@link SeekbarBitmapRenderer}
+     * @return Snapshot of the seek bar
+     */
+    public SeekbarSnapshot snapshot() {
+        //setActMinValue only logs values out of range or past the max value, the snapshot does not accept them
+        long min = Math.max(dataMin, Math.min(dataMax, minDataValue));
+        long max = Math.max(dataMin, Math.min(dataMax, maxDataValue));
+        return new SeekbarSnapshot(dataMin, dataMax, Math.min(min, max), Math.max(min, max), true,
+                paintGuide.getColor(), paintRange.getColor(), paintPointers.getColor());
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+
+        paintPointers.setAlpha(enabled ? NO_ALPHA : ALPHA);
+        paintRange.setAlpha(enabled ? NO_ALPHA : ALPHA);
+        paintExcluded.setAlpha(enabled ? NO_ALPHA : ALPHA);
+        paintGuide.setAlpha(enabled ? NO_ALPHA : ALPHA);
+        valueLabel.setAlpha(enabled ? NO_ALPHA : ALPHA);
+
+        invalidate();
+    }
+
+    @Override
+    public CharSequence getAccessibilityClassName() {
+        return DoubleSeekbarView.class.getName();
+    }
+
+    @Override
+    public void onInitializeAccessibilityEvent(AccessibilityEvent event) {
+        super.onInitializeAccessibilityEvent(event);
+        event.setItemCount(getMinValue());
+        event.setCurrentItemIndex(getMinDataValue());
+        event.setItemCount(getMaxValue());
+        event.setCurrentItemIndex(getMaxDataValue());
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+
+        if (isEnabled()) {
+            info.addAction(-1000920);
+            info.setScrollable(true);
+            info.addAction(AccessibilityNodeInfo.ACTION_SCROLL_FORWARD);
+            info.addAction(AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD);
+        }
+    }
+
+    @Override
+    public boolean performAccessibilityAction(int action, Bundle arguments) {
+        if(super.performAccessibilityAction(action, arguments)) {
+            return true;
+        } else if(!isEnabled()) {
+            return false;
+        }
+
+        switch (action) {
+            case AccessibilityNodeInfo.ACTION_SCROLL_FORWARD:
+                return adjustValue(left, true);
+            case AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD:
+                return adjustValue(left, false);
+        }
+        return false;
+    }
+
+    /**
+     * Move a pointer one step, finer than touch can when the resolution is adaptive. A pointer
+     * does not move past the other one
+     * @param left true to move the min pointer, false for the max pointer
+     * @param forward true to move to greater values
+     * @return true if the value changed
+     */
+    private boolean adjustValue(boolean left, boolean forward) {
+        ensureScale();
+        if(scaleDirty) {
+            return false;
+        }
+
+        long from = left ? minDataValue : maxDataValue;
+        long value = excluded.stepAllowed(from, forward, scale);
+        if(value == from || (left && value > maxDataValue) || (!left && value < minDataValue)) {
+            return false;
+        }
+
+        cancelAnimation();
+        if(left) {
+            minDataValue = value;
+            updateMinPositionByStep(minDataValue);
+        } else {
+            maxDataValue = value;
+            updateMaxPositionByStep(maxDataValue);
+        }
+        invalidate();
+        notifyValuesChange(ChangeSource.ADJUSTMENT);
+        scheduleAccessibilityEventSender();
+        return true;
+    }
+
+    private void scheduleAccessibilityEventSender() {
+        if (mAccessibilityEventSender == null) {
+            mAccessibilityEventSender = new AccessibilityEventSender();
+        } else {
+            removeCallbacks(mAccessibilityEventSender);
+        }
+        postDelayed(mAccessibilityEventSender, TIMEOUT_SEND_ACCESSIBILITY_EVENT);
+    }
+
+    private class AccessibilityEventSender implements Runnable {
+        public void run() {
+            sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_SELECTED);
+        }
+    }
+
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if(!isEnabled()) {
+            return super.onKeyDown(keyCode, event);
+        } else if(keyStepper.onKeyDown(keyCode, event)) {
+            return true;
+        } else if((keyCode == KeyEvent.KEYCODE_DPAD_CENTER || keyCode == KeyEvent.KEYCODE_ENTER)
+                && event.getRepeatCount() == 0) {
+            //Switch the pointer moved by the keys
+            left = !left;
+            pressedPointers(left);
+            invalidate();
+            return true;
+        }
+        return super.onKeyDown(keyCode, event);
+    }
+
+    @Override
+    public boolean onKeyUp(int keyCode, KeyEvent event) {
+        if(keyStepper.onKeyUp(keyCode, event)) {
+            return true;
+        }
+        return super.onKeyUp(keyCode, event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+
+        if(gainFocus) {
+            pressedPointers(left);
+        } else {
+            normalPointers();
+        }
+        invalidate();
+    }
+
+    /**
+     * Moves the active pointer with the keys straight on the step grid, and notifies the values
+     * once the key is released. A pointer does not move past the other one
+     */
+    private class KeyTarget implements KeyStepper.Target {
+        private boolean moved;
+        private long minBeforeKeys;
+        private long maxBeforeKeys;
+
+        @Override
+        public void onSteps(long count) {
+            ensureScale();
+            if(scaleDirty) {
+                return;
+            }
+            if(!moved) {
+                moved = true;
+                minBeforeKeys = minDataValue;
+                maxBeforeKeys = maxDataValue;
+            }
+
+            long value = steppedValue(count);
+            if(value == (left ? minDataValue : maxDataValue)) {
+                return;
+            }
+
+            cancelAnimation();
+            if(left) {
+                minDataValue = value;
+                updateMinPositionByStep(minDataValue);
+            } else {
+                maxDataValue = value;
+                updateMaxPositionByStep(maxDataValue);
+            }
+            invalidate();
+        }
+
+        @Override
+        public boolean canStep(int direction) {
+            ensureScale();
+            return !scaleDirty && steppedValue(direction) != (left ? minDataValue : maxDataValue);
+        }
+
+        private long steppedValue(long count) {
+            long value = scale.offsetSteps(left ? minDataValue : maxDataValue, count);
+            if(excluded.indexOf(value) >= 0) {
+                value = excluded.stepAllowed(value, count > 0, scale);
+                value = excluded.nearestAllowed(value, scale);
+            }
+            return left ? Math.min(value, maxDataValue) : Math.max(value, minDataValue);
+        }
+
+        @Override
+        public void onStepsReleased() {
+            if(moved && (minDataValue != minBeforeKeys || maxDataValue != maxBeforeKeys)) {
+                notifyValuesChange(ChangeSource.ADJUSTMENT);
+                scheduleAccessibilityEventSender();
+            }
+            moved = false;
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if(traceRecorder != null) {
+            traceRecorder.record(event);
+        }
+        if(!isEnabled()) {
+            return false;
+        }
+
+        ensureScale();
+        if(zoomEnabled) {
+            scaleDetector.onTouchEvent(event);
+        }
+        switch (event.getAction() & MotionEvent.ACTION_MASK) {
+            case MotionEvent.ACTION_DOWN:
+                cancelAnimation();
+                zooming = false;
+                touchStartMin = minDataValue;
+                touchStartMax = maxDataValue;
+                startLowLatencyTracking(event);
+                isLeftPressed(event.getX());
                 pressedPointers(left);
                 updateStepPositions(left, event.getX());
                 break;
             case MotionEvent.ACTION_UP:
                 normalPointers();
+                if(lowLatency && !zooming) {
+                    //Settle the pointer drawn ahead back on the real value
+                    updateMinPositionByStep(minDataValue);
+                    updateMaxPositionByStep(maxDataValue);
+                }
                 invalidate();
+                //A tap on a pointer changes nothing to save
+                if(minDataValue != touchStartMin || maxDataValue != touchStartMax) {
+                    persistState();
+                }
                 break;
             case MotionEvent.ACTION_MOVE:
-                pressedPointers(left);
-                updateStepPositions(left, event.getX());
+                velocityEstimator.addMovement(event);
+                if(!zooming) {
+                    pressedPointers(left);
+                    updateStepPositions(left, event.getX());
+                    drawAhead(left, predictPosition(event.getX()));
+                    predictSettle(left, event.getX());
+                }
                 break;
         }
         return true;
     }
 
+    private void startLowLatencyTracking(MotionEvent event) {
+        velocityEstimator.clear();
+        settlePredictor.reset();
+        velocityEstimator.addMovement(event);
+        if(lowLatency && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            requestUnbufferedDispatch(event);
+        }
+    }
+
+    /**
+     * Draw the moving pointer at a predicted position, without changing its value
+     * @param left true for the min pointer
+     * @param drawValue Predicted touch position
+     */
+    private void drawAhead(boolean left, float drawValue) {
+        if(scaleDirty || !lowLatency) {
+            return;
+        }
+
+        float position = scale.positionOf(valueAt(drawValue));
+        if(left) {
+            drawMinActVal = Math.min(position, drawMaxActVal);
+        } else {
+            drawMaxActVal = Math.max(position, drawMinActVal);
+        }
+        updateRange();
+    }
+
+    private void predictSettle(boolean left, float x) {
+        if(settleListener == null || scaleDirty || !settlePredictor.onMove(velocityEstimator)) {
+            return;
+        }
+
+        long value = valueAt(settlePredictor.settlePosition(velocityEstimator, x, pressedRadius * 2));
+        if(left) {
+            settleListener.onSettlePredicted(Math.min(value, maxDataValue), maxDataValue);
+        } else {
+            settleListener.onSettlePredicted(minDataValue, Math.max(value, minDataValue));
+        }
+    }
+
     private void isLeftPressed(float pos) {
         float middleRange = ((drawMaxActVal - drawMinActVal) / 2) + drawMinActVal;
         left = pos < middleRange;
@@ -400,6 +1540,10 @@ public class DoubleSeekbarView extends View {
     }
 
     private void updateStepPositions(boolean left, float posX) {
+        if(scaleDirty) {
+            return;
+        }
+
         if(posX < drawMin) {
             drawMinActVal = drawMin;
         } else if (posX > drawMax) {
@@ -420,35 +1564,121 @@ public class DoubleSeekbarView extends View {
             }
         }
 
-        for(Step step : stepList) {
-            if(left && step.contains(drawMinActVal)) {
-                minDataValue = step.value;
-                drawMinActVal = step.drawValue;
-            } else if(!left && step.contains(drawMaxActVal)) {
-                maxDataValue = step.value;
-                drawMaxActVal = step.drawValue;
-            }
+        long oldMin = minDataValue;
+        long oldMax = maxDataValue;
+        if(left) {
+            //A pointer shown at an edge while zoomed may be past the other one
+            minDataValue = Math.min(valueAt(drawMinActVal), maxDataValue);
+            drawMinActVal = scale.positionOf(minDataValue);
+        } else {
+            maxDataValue = Math.max(valueAt(drawMaxActVal), minDataValue);
+            drawMaxActVal = scale.positionOf(maxDataValue);
         }
 
         updateRange();
         invalidate();
+        if(minDataValue != oldMin || maxDataValue != oldMax) {
+            notifyValuesChange(ChangeSource.TOUCH);
+        }
     }
 
     private void updateRange() {
         range.set(drawMinActVal, guideTop, drawMaxActVal, guideBottom);
-        if(listener != null) {
-            listener.onValuesChange(minDataValue, maxDataValue);
-        } else {
-            Log.d(TAG, "MinVal: " + minDataValue + ", MaxVal: " + maxDataValue);
+    }
+
+    /**
+     * Notify the listeners about the actual values. Changes made by the listeners while they are
+     * being notified are not notified again, which breaks loops between the seek bar and
+     * views bound to its values.
+     * @param source One of the ChangeSource constants
+     */
+    private void notifyValuesChange(int source) {
+        if(dispatching) {
+            return;
+        } else if(group != null && group.deferChange(this)) {
+            deferredSource = source;
+            return;
+        }
+
+        dispatching = true;
+        try {
+            if(longListener != null) {
+                longListener.onValuesChange(minDataValue, maxDataValue, source);
+            }
+            Object[] entries = listeners.entries();
+            for(int i = 0; i < entries.length; i++) {
+                OnLongValuesChangeListener l = listeners.get(entries, i);
+                if(l != null) {
+                    l.onValuesChange(minDataValue, maxDataValue, source);
+                }
+            }
+            //Restored values come from the store or the saved instance state, not from a change
+            if(source != ChangeSource.TOUCH && source != ChangeSource.RESTORE) {
+                persistState();
+            }
+            if(listener != null) {
+                listener.onValuesChange((int) minDataValue, (int) maxDataValue);
+            } else if(longListener == null && listeners.isEmpty()) {
+                Log.d(TAG, "MinVal: " + minDataValue + ", MaxVal: " + maxDataValue);
+            }
+        } finally {
+            dispatching = false;
         }
+
+        if(group != null) {
+            group.onChildChanged(this);
+        }
+    }
+
+    void setGroup(SeekbarGroup group) {
+        this.group = group;
+    }
+
+    /**
+     * Notify the change deferred during a group transaction
+     */
+    void dispatchDeferredChange() {
+        notifyValuesChange(deferredSource);
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
+        ensureScale();
         canvas.drawRect(guide, paintGuide);
         canvas.drawRect(range, paintRange);
-        canvas.drawCircle(drawMinActVal, drawMiddleHeight, minCircleRadius, paintPointers);
-        canvas.drawCircle(drawMaxActVal, drawMiddleHeight, maxCircleRadius, paintPointers);
+        if(excludedLineCount > 0) {
+            canvas.drawLines(excludedLines, 0, excludedLineCount, paintExcluded);
+        }
+        if(tickCount > 0) {
+            canvas.drawLines(tickLines, 0, tickCount * 4, paintGuide);
+        }
+        drawPointer(canvas, minDataValue, drawMinActVal, minCircleRadius);
+        drawPointer(canvas, maxDataValue, drawMaxActVal, maxCircleRadius);
+        if(showLabels) {
+            valueLabel.draw(canvas, minDataValue, drawMinActVal, labelBottom);
+            valueLabel.draw(canvas, maxDataValue, drawMaxActVal, labelBottom);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(trimCallbacks);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getContext().getApplicationContext().unregisterComponentCallbacks(trimCallbacks);
+
+        if(isAnimating()) {
+            SeekbarAnimator.getInstance().cancel(valuesAnimation);
+            minDataValue = valuesAnimation.toMin;
+            maxDataValue = valuesAnimation.toMax;
+            updateMinPositionByStep(minDataValue);
+            updateMaxPositionByStep(maxDataValue);
+            notifyValuesChange(ChangeSource.PROGRAMMATIC);
+        }
     }
 
     @Override
@@ -462,122 +1692,188 @@ public class DoubleSeekbarView extends View {
         drawMinActVal = drawMin;
         drawMaxActVal = drawMax;
 
-        drawMiddleHeight = h/2;
+        updateGuidePosition();
+        scaleDirty = true;
+        ensureScale();
+    }
+
+    /**
+     * Center the guide in the height left below the labels
+     */
+    private void updateGuidePosition() {
+        float labelSpace = showLabels ? getLabelSpace() : 0;
+        float top = getPaddingTop() + labelSpace;
+        drawMiddleHeight = top + (getHeight() - getPaddingBottom() - top) / 2;
+        labelBottom = drawMiddleHeight - TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 14, getResources().getDisplayMetrics());
         guideTop = (int) (drawMiddleHeight - TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 2, getResources().getDisplayMetrics()));
         guideBottom = (int) (drawMiddleHeight + TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 2, getResources().getDisplayMetrics()));
 
         guide.set(drawMin, guideTop, drawMax, guideBottom);
+        paintExcluded.setStrokeWidth(guideBottom - guideTop);
+    }
+
+    /**
+     * Mark the scale as stale. It will be rebuilt once on the next layout, draw or touch.
+     */
+    private void invalidateScale() {
+        scaleDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Build the scale if it is stale and the view already has a real width.
+     */
+    private void ensureScale() {
+        if(!scaleDirty || drawMax <= drawMin) {
+            return;
+        }
+
         setScale();
     }
 
     private void setScale() {
-        stepList.clear();
-
-        int range = (dataMax - dataMin) / steps;
-        float drawRange = drawMax - drawMin;
-        float longStep = drawRange / range;
-        float actDrawStep = drawMin;
-        for (int actStep = dataMin; actStep <= dataMax; actStep+=steps, actDrawStep+=longStep) {
-            stepList.add(new Step(actStep, actDrawStep, longStep));
+        scaleDirty = false;
+        ensureLineBuffers();
+        scale.setRange(dataMin, dataMax, steps);
+        scale.setAdaptiveResolution(adaptiveResolution);
+        scale.setQuantiles(quantileScale ? distribution : null);
+        if(zoomed) {
+            scale.setViewport(viewMin, viewMax);
+        } else {
+            scale.resetViewport();
         }
+        readViewport();
+        scale.setDrawRange(drawMin, drawMax);
 
         updateMinPositionByStep(minDataValue);
         updateMaxPositionByStep(maxDataValue);
+        updateTicks();
+        updateExcludedLines();
+    }
+
+    /**
+     * Size the buffers of the step ticks and excluded intervals lines for the actual draw range
+     * and intervals, they are dropped when memory is trimmed
+     */
+    private void ensureLineBuffers() {
+        int maxTicks = drawMax > drawMin ? (int) ((drawMax - drawMin) / tickSpacing) + 2 : 0;
+        if(tickPositions.length != maxTicks) {
+            tickPositions = new float[maxTicks];
+            tickLines = new float[maxTicks * 4];
+        }
+        if(excludedLines.length != excluded.size() * 4) {
+            excludedLines = new float[excluded.size() * 4];
+        }
+    }
+
+    /**
+     * Drop the buffers derived from the scale, keeping only the configuration and the values.
+     * They are rebuilt from the values on the next layout, draw or touch
+     */
+    private void releaseCaches() {
+        tickPositions = new float[0];
+        tickLines = new float[0];
+        tickCount = 0;
+        excludedLines = new float[0];
+        excludedLineCount = 0;
+        scaleDirty = true;
+    }
+
+    /**
+     * Whether no part of the seek bar is on screen, like in a hidden tab
+     */
+    private boolean isOffScreen() {
+        return !isShown() || !getGlobalVisibleRect(visibleRect);
     }
 
-    private class Step {
-        int value;
-        float drawValue;
-        float minRangeValue;
-        float maxRangeValue;
+    private class TrimCallbacks implements ComponentCallbacks2 {
+        @Override
+        public void onTrimMemory(int level) {
+            if(level >= TRIM_MEMORY_UI_HIDDEN || (level >= TRIM_MEMORY_RUNNING_LOW && isOffScreen())) {
+                releaseCaches();
+            }
+        }
 
-        public Step(int value, float drawValue, float longStep) {
-            this.value = value;
-            this.drawValue = drawValue;
-            this.minRangeValue = drawValue - (longStep/2);
-            this.maxRangeValue = drawValue + (longStep/2);
+        @Override
+        public void onLowMemory() {
+            if(isOffScreen()) {
+                releaseCaches();
+            }
         }
 
-        public boolean contains(float drawActValue) {
-            return minRangeValue <= drawActValue && drawActValue < maxRangeValue;
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
         }
     }
 
+    private float getLabelSpace() {
+        return valueLabel.getHeight() + TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 2, getResources().getDisplayMetrics());
+    }
+
+    /**
+     * Width fills the space given unless it is unspecified, height fits the pressed pointer and
+     * the labels. Value, color and enabled changes never change the size, so they only invalidate.
+     */
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        int height = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 30, getResources().getDisplayMetrics());
-        setMeasuredDimension(widthMeasureSpec, height);
+        DisplayMetrics metrics = getResources().getDisplayMetrics();
+        float sidePaddings = 2 * TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 30, metrics);
+        float pointerHeight = 2 * TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 12, metrics);
+        float height = Math.max(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 30, metrics), pointerHeight);
+        if(showLabels) {
+            height += getLabelSpace();
+        }
+
+        int minWidth = Math.max(getSuggestedMinimumWidth(), (int) Math.ceil(sidePaddings + pointerHeight) + getPaddingLeft() + getPaddingRight());
+        int minHeight = Math.max(getSuggestedMinimumHeight(), (int) Math.ceil(height) + getPaddingTop() + getPaddingBottom());
+        int width = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                ? minWidth : Math.max(minWidth, MeasureSpec.getSize(widthMeasureSpec));
+
+        setMeasuredDimension(resolveSizeAndState(width, widthMeasureSpec, 0),
+                resolveSizeAndState(minHeight, heightMeasureSpec, 0));
     }
 
     @Override
     public Parcelable onSaveInstanceState() {
         Parcelable superState = super.onSaveInstanceState();
-        SavedState ss = new SavedState(superState);
-        ss.minValue =  getMinValue();
-        ss.maxValue = getMaxValue();
-        ss.minActValue = getMinDataValue();
-        ss.maxActValue = getMaxDataValue();
+        SeekbarSavedState ss = new SeekbarSavedState(superState);
+        ss.fields = SeekbarSavedState.FIELD_RANGE | SeekbarSavedState.FIELD_STEPS | SeekbarSavedState.FIELD_MIN_VALUE
+                | SeekbarSavedState.FIELD_MAX_VALUE | SeekbarSavedState.FIELD_DECIMAL_PLACES;
+        ss.dataMin = dataMin;
+        ss.dataMax = dataMax;
         ss.steps = steps;
+        ss.minValue = minDataValue;
+        ss.maxValue = maxDataValue;
+        ss.decimalPlaces = decimalPlaces;
         return ss;
     }
 
     @Override
     public void onRestoreInstanceState(Parcelable state) {
-        if(!(state instanceof SavedState)) {
+        if(!(state instanceof SeekbarSavedState)) {
             super.onRestoreInstanceState(state);
             return;
         }
-        SavedState ss = (SavedState) state;
+        SeekbarSavedState ss = (SeekbarSavedState) state;
         super.onRestoreInstanceState(ss.getSuperState());
-        setMinValue(ss.minValue);
-        setMaxValue(ss.maxValue);
-        setActMinValue(ss.minActValue);
-        setActMaxValue(ss.maxActValue);
-        setSteps(ss.steps);
-    }
-
-    static class SavedState extends BaseSavedState {
-        Parcelable superState;
-        int minValue;
-        int maxValue;
-        int minActValue;
-        int maxActValue;
-        int steps;
-
-        SavedState(Parcelable superState) {
-            super(EMPTY_STATE);
-            this.superState = superState;
+        if(ss.has(SeekbarSavedState.FIELD_RANGE)) {
+            dataMin = ss.dataMin;
+            dataMax = ss.dataMax;
         }
-
-        private SavedState(Parcel in) {
-            super(in);
-            superState = in.readParcelable(DoubleSeekbarView.SavedState.class.getClassLoader());
-            minValue = in.readInt();
-            maxValue = in.readInt();
-            minActValue = in.readInt();
-            maxActValue = in.readInt();
-            steps = in.readInt();
+        if(ss.has(SeekbarSavedState.FIELD_STEPS)) {
+            steps = ss.steps;
         }
-
-        @Override
-        public void writeToParcel(Parcel out, int flags) {
-            super.writeToParcel(out, flags);
-            out.writeParcelable(superState, flags);
-            out.writeInt(minValue);
-            out.writeInt(maxValue);
-            out.writeInt(minActValue);
-            out.writeInt(maxActValue);
-            out.writeInt(steps);
-        }
-
-        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
-            public SavedState createFromParcel(Parcel in) {
-                return new SavedState(in);
-            }
-
-            public SavedState[] newArray(int size) {
-                return new SavedState[size];
-            }
-        };
+        if(ss.has(SeekbarSavedState.FIELD_MIN_VALUE)) {
+            minDataValue = ss.minValue;
+        }
+        if(ss.has(SeekbarSavedState.FIELD_MAX_VALUE)) {
+            maxDataValue = ss.maxValue;
+        }
+        if(ss.has(SeekbarSavedState.FIELD_DECIMAL_PLACES)) {
+            decimalPlaces = ss.decimalPlaces;
+            valueLabel.setDecimalPlaces(decimalPlaces);
+        }
+        invalidateScale();
+        notifyValuesChange(ChangeSource.RESTORE);
     }
 }
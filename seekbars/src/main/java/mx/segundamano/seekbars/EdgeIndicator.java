@@ -0,0 +1,29 @@
+package mx.segundamano.seekbars;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+/**
+ * Arrow drawn at an edge of the guide in place of a pointer whose value is outside the viewport.
+ * The path is reused between draws.
+ */
+final class EdgeIndicator {
+    private final Path path = new Path();
+
+    /**
+     * @param x Position of the edge
+     * @param y Vertical center of the guide
+     * @param size Half height of the arrow
+     * @param pointingLeft true for values before the viewport, false for values after it
+     */
+    void draw(Canvas canvas, float x, float y, float size, boolean pointingLeft, Paint paint) {
+        float tip = pointingLeft ? x - size : x + size;
+        path.reset();
+        path.moveTo(tip, y);
+        path.lineTo(x, y - size);
+        path.lineTo(x, y + size);
+        path.close();
+        canvas.drawPath(path, paint);
+    }
+}
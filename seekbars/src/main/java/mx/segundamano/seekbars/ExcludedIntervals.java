@@ -0,0 +1,195 @@
+package mx.segundamano.seekbars;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Intervals of values that can not be selected, like gaps without listings.
+ * Intervals are merged and kept as two sorted arrays of starts and ends, so the interval
+ * containing a value is found with a binary search.
+ */
+final class ExcludedIntervals {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] starts = EMPTY;
+    private long[] ends = EMPTY;
+
+    /**
+     * @param starts First excluded value of each interval
+     * @param ends Last excluded value of each interval, at the same index of its start
+     */
+    void set(long[] starts, long[] ends) {
+        if(starts == null || ends == null || starts.length == 0) {
+            this.starts = EMPTY;
+            this.ends = EMPTY;
+            return;
+        }
+        if(starts.length != ends.length) {
+            throw new IllegalArgumentException("Each excluded interval should have a start and an end");
+        }
+
+        long[][] intervals = new long[starts.length][];
+        for(int i = 0; i < starts.length; i++) {
+            if(ends[i] < starts[i]) {
+                throw new IllegalArgumentException("Excluded interval end is minor than its start");
+            }
+            intervals[i] = new long[]{starts[i], ends[i]};
+        }
+        Arrays.sort(intervals, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                return a[0] < b[0] ? -1 : (a[0] == b[0] ? 0 : 1);
+            }
+        });
+
+        long[] mergedStarts = new long[intervals.length];
+        long[] mergedEnds = new long[intervals.length];
+        int count = 0;
+        for(long[] interval : intervals) {
+            //Overlapping and adjacent intervals become one
+            if(count > 0 && (mergedEnds[count - 1] == Long.MAX_VALUE || interval[0] <= mergedEnds[count - 1] + 1)) {
+                mergedEnds[count - 1] = Math.max(mergedEnds[count - 1], interval[1]);
+            } else {
+                mergedStarts[count] = interval[0];
+                mergedEnds[count] = interval[1];
+                count++;
+            }
+        }
+        this.starts = Arrays.copyOf(mergedStarts, count);
+        this.ends = Arrays.copyOf(mergedEnds, count);
+    }
+
+    boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    long getStart(int index) {
+        return starts[index];
+    }
+
+    long getEnd(int index) {
+        return ends[index];
+    }
+
+    /**
+     * @return Index of the interval containing the value, -1 if it is not excluded
+     */
+    int indexOf(long value) {
+        int index = lastStartAtOrBefore(value);
+        return index >= 0 && value <= ends[index] ? index : -1;
+    }
+
+    private int lastStartAtOrBefore(long value) {
+        int index = Arrays.binarySearch(starts, value);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Nearest value on the step grid that is not excluded. Steps between intervals are checked
+     * one interval at a time, so it only walks further when intervals are closer than a step
+     * @param value Value on the step grid
+     * @param scale Scale giving the step grid
+     * @return The value if it is allowed, the nearest allowed one otherwise, or the value itself
+     * when the whole range is excluded
+     */
+    long nearestAllowed(long value, ValueScale scale) {
+        int index = indexOf(value);
+        if(index < 0) {
+            return value;
+        }
+
+        long lastStep = scale.valueAtStep(scale.getStepCount());
+        boolean hasBelow = false;
+        long below = 0;
+        for(int i = index; i >= 0 && starts[i] > scale.getDataMin(); ) {
+            long candidate = scale.floorStep(starts[i] - 1);
+            int containing = indexOf(candidate);
+            if(containing < 0) {
+                hasBelow = true;
+                below = candidate;
+                break;
+            }
+            i = containing;
+        }
+
+        boolean hasAbove = false;
+        long above = 0;
+        for(int i = index; i < ends.length && ends[i] < lastStep; ) {
+            long candidate = scale.ceilStep(ends[i] + 1);
+            int containing = indexOf(candidate);
+            if(containing < 0) {
+                hasAbove = true;
+                above = candidate;
+                break;
+            }
+            i = containing;
+        }
+
+        if(hasBelow && hasAbove) {
+            return ValueScale.toDouble(value - below) <= ValueScale.toDouble(above - value) ? below : above;
+        }
+        return hasBelow ? below : (hasAbove ? above : value);
+    }
+
+    /**
+     * Next value on the step grid that is not excluded, in one direction
+     * @param from Actual value
+     * @param forward true to move to greater values
+     * @param scale Scale giving the step grid
+     * @return The next allowed value, or from when there is none in that direction
+     */
+    long stepAllowed(long from, boolean forward, ValueScale scale) {
+        long lastStep = scale.valueAtStep(scale.getStepCount());
+        long value = from;
+        while(true) {
+            if(forward) {
+                if(value >= lastStep) {
+                    return from;
+                }
+                value = scale.ceilStep(value + 1);
+            } else {
+                if(value <= scale.getDataMin()) {
+                    return from;
+                }
+                value = scale.floorStep(value - 1);
+            }
+
+            int index = indexOf(value);
+            if(index < 0) {
+                return value;
+            }
+            value = forward ? ends[index] : starts[index];
+        }
+    }
+
+    /**
+     * Fill line coordinates for the visible intervals, to draw them all with one drawLines call
+     * @param scale Scale the guide is drawn with
+     * @param y Vertical center of the guide
+     * @param out Array of 4 floats per interval
+     * @return Count of floats written
+     */
+    int fillLines(ValueScale scale, float y, float[] out) {
+        int first = Math.max(0, lastStartAtOrBefore(scale.getViewMin()));
+        int count = 0;
+        for(int i = first; i < starts.length && count + 4 <= out.length; i++) {
+            if(starts[i] > scale.getViewMax()) {
+                break;
+            } else if(ends[i] < scale.getViewMin()) {
+                continue;
+            }
+
+            float start = scale.positionOf(starts[i]);
+            float end = Math.max(scale.positionOf(ends[i]), start + 1);
+            out[count++] = start;
+            out[count++] = y;
+            out[count++] = end;
+            out[count++] = y;
+        }
+        return count;
+    }
+}
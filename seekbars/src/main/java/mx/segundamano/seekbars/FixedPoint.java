@@ -0,0 +1,52 @@
+package mx.segundamano.seekbars;
+
+/**
+ * Helpers for fixed-point decimal values, stored as long with a count of decimal places.
+ * For example 150050 with 2 decimal places is 1500.50
+ */
+public final class FixedPoint {
+    public static final int MAX_DECIMAL_PLACES = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_DECIMAL_PLACES + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for(int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Get the unit of a fixed-point value, 10 to the power of decimal places
+     * @param decimalPlaces Count of decimal places
+     * @return Count of unscaled units in one
+     */
+    public static long unit(int decimalPlaces) {
+        return POWERS_OF_TEN[decimalPlaces];
+    }
+
+    /**
+     * Convert a fixed-point value to double. Precision may be lost for big values
+     * @param unscaledValue Fixed-point value
+     * @param decimalPlaces Count of decimal places
+     * @return Decimal value
+     */
+    public static double toDouble(long unscaledValue, int decimalPlaces) {
+        long unit = POWERS_OF_TEN[decimalPlaces];
+        return (unscaledValue / unit) + (double) (unscaledValue % unit) / unit;
+    }
+
+    /**
+     * Convert a decimal value to fixed-point, rounding half away from zero
+     * @param value Decimal value
+     * @param decimalPlaces Count of decimal places
+     * @return Fixed-point value
+     */
+    public static long fromDouble(double value, int decimalPlaces) {
+        double scaled = value * POWERS_OF_TEN[decimalPlaces];
+        return (long) (scaled < 0 ? scaled - 0.5 : scaled + 0.5);
+    }
+}
@@ -0,0 +1,85 @@
+package mx.segundamano.seekbars;
+
+import android.view.MotionEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the touch events reaching a seek bar into a compact binary trace that can be replayed
+ * later with {@link GestureTraceReplayer}, so drags from the field become repeatable benchmarks.
+ * Each event is written as its action, the count of samples batched into it and, for each sample,
+ * its time as a varint delta from the previous sample and its x position as a float. Only the
+ * first pointer is kept. Used only from the UI thread.
+ */
+public class GestureTraceRecorder {
+    static final int MAGIC = 0x53424754;
+    static final int VERSION = 1;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private boolean started;
+    private long previousTime;
+    private int eventCount;
+
+    public GestureTraceRecorder() {
+        clear();
+    }
+
+    /**
+     * Append an event to the trace, seek bars with this recorder set call it for each touch event
+     */
+    public void record(MotionEvent event) {
+        try {
+            int history = event.getHistorySize();
+            out.writeByte(event.getActionMasked());
+            VarInt.writeUnsigned(out, history);
+            for(int i = 0; i < history; i++) {
+                writeSample(event.getHistoricalEventTime(i), event.getHistoricalX(i));
+            }
+            writeSample(event.getEventTime(), event.getX());
+            eventCount++;
+        } catch (IOException e) {
+            //Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void writeSample(long time, float x) throws IOException {
+        //The trace starts at time 0
+        VarInt.writeSigned(out, started ? time - previousTime : 0);
+        out.writeFloat(x);
+        previousTime = time;
+        started = true;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Drop the events recorded so far and start a new trace
+     */
+    public void clear() {
+        bytes.reset();
+        started = false;
+        previousTime = 0;
+        eventCount = 0;
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+
+    public void writeTo(OutputStream stream) throws IOException {
+        bytes.writeTo(stream);
+    }
+}
@@ -0,0 +1,158 @@
+package mx.segundamano.seekbars;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Feeds a trace written by {@link GestureTraceRecorder} back to a view's onTouchEvent, with the
+ * recorded actions, positions and times shifted to the moment of the replay, and measures how
+ * long the view takes to handle each event. Events are sent one after the other without waiting,
+ * so a replay is deterministic and can run under Robolectric or on a device as a benchmark.
+ */
+public class GestureTraceReplayer {
+    private final int[] actions;
+    //Index of the first sample of each event, the last one ends at the sample count
+    private final int[] firstSamples;
+    private final long[] times;
+    private final float[] positions;
+    private final int sampleCount;
+
+    /**
+     * @param trace Bytes of a trace
+     * @throws IOException if it is not a trace or it is truncated
+     */
+    public GestureTraceReplayer(byte[] trace) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(trace));
+        if(in.readInt() != GestureTraceRecorder.MAGIC || in.readUnsignedByte() != GestureTraceRecorder.VERSION) {
+            throw new IOException("Unknown gesture trace format");
+        }
+
+        int[] actions = new int[16];
+        int[] firstSamples = new int[16];
+        long[] times = new long[16];
+        float[] positions = new float[16];
+        int events = 0;
+        int samples = 0;
+        long time = 0;
+        while(in.available() > 0) {
+            if(events == actions.length) {
+                actions = Arrays.copyOf(actions, events * 2);
+                firstSamples = Arrays.copyOf(firstSamples, events * 2);
+            }
+            actions[events] = in.readUnsignedByte();
+            firstSamples[events] = samples;
+            events++;
+
+            long count = VarInt.readUnsigned(in) + 1;
+            if(count > in.available()) {
+                throw new IOException("Gesture trace is truncated");
+            }
+            for(int i = 0; i < count; i++) {
+                if(samples == times.length) {
+                    times = Arrays.copyOf(times, samples * 2);
+                    positions = Arrays.copyOf(positions, samples * 2);
+                }
+                time += VarInt.readSigned(in);
+                times[samples] = time;
+                positions[samples] = in.readFloat();
+                samples++;
+            }
+        }
+
+        this.actions = Arrays.copyOf(actions, events);
+        this.firstSamples = Arrays.copyOf(firstSamples, events);
+        this.times = times;
+        this.positions = positions;
+        this.sampleCount = samples;
+    }
+
+    public int getEventCount() {
+        return actions.length;
+    }
+
+    /**
+     * Send every event of the trace to the view, on the UI thread
+     * @param view View to send the events to, laid out with the size it had when recording
+     * @return Time the view took to handle each event
+     */
+    public Result replay(View view) {
+        long base = SystemClock.uptimeMillis();
+        long downTime = base;
+        float y = view.getHeight() / 2f;
+        long[] nanos = new long[actions.length];
+
+        for(int i = 0; i < actions.length; i++) {
+            int first = firstSamples[i];
+            int end = i + 1 < actions.length ? firstSamples[i + 1] : sampleCount;
+            //The last sample is the event, the ones before it its history
+            if(actions[i] == MotionEvent.ACTION_DOWN) {
+                downTime = base + times[end - 1];
+            }
+
+            MotionEvent event = MotionEvent.obtain(downTime, base + times[first], actions[i], positions[first], y, 0);
+            for(int sample = first + 1; sample < end; sample++) {
+                event.addBatch(base + times[sample], positions[sample], y, 1f, 1f, 0);
+            }
+
+            long start = System.nanoTime();
+            view.onTouchEvent(event);
+            nanos[i] = System.nanoTime() - start;
+            event.recycle();
+        }
+        return new Result(nanos);
+    }
+
+    /**
+     * Time taken by a view to handle each event of a replay
+     */
+    public static class Result {
+        private final long[] eventNanos;
+        private final long[] sortedNanos;
+
+        Result(long[] eventNanos) {
+            this.eventNanos = eventNanos;
+            sortedNanos = eventNanos.clone();
+            Arrays.sort(sortedNanos);
+        }
+
+        public int getEventCount() {
+            return eventNanos.length;
+        }
+
+        /**
+         * Time taken by an event, in the order of the trace
+         */
+        public long getEventNanos(int index) {
+            return eventNanos[index];
+        }
+
+        public long getTotalNanos() {
+            long total = 0;
+            for(long nanos : eventNanos) {
+                total += nanos;
+            }
+            return total;
+        }
+
+        /**
+         * Time not exceeded by the given fraction of the events, like 0.99 for the 99th percentile
+         */
+        public long getPercentileNanos(double fraction) {
+            if(sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(Math.max(0, Math.min(1, fraction)) * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)];
+        }
+
+        public long getMaxNanos() {
+            return sortedNanos.length == 0 ? 0 : sortedNanos[sortedNanos.length - 1];
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package mx.segundamano.seekbars;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a column of values from a file of little-endian ints, like a listings snapshot, without
+ * copying it to the heap. The file is memory-mapped read-only a window at a time and handed to
+ * the consumer as chunks in file order, so loading tens of millions of values can be cancelled
+ * between chunks. Loading blocks, call it from a background thread.
+ */
+public class IntColumnLoader {
+    static final int DEFAULT_CHUNK_INTS = 64 * 1024;
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+
+    public interface Consumer {
+        /**
+         * Called with each chunk of values, in file order
+         * @param chunk Read-only view of the values, valid only during the call
+         */
+        void onChunk(IntBuffer chunk);
+    }
+
+    private final File file;
+    private final int chunkInts;
+    private volatile boolean cancelled;
+
+    public IntColumnLoader(File file) {
+        this(file, DEFAULT_CHUNK_INTS);
+    }
+
+    /**
+     * @param chunkInts Count of values given to the consumer at once
+     */
+    public IntColumnLoader(File file, int chunkInts) {
+        if(chunkInts <= 0) {
+            throw new IllegalArgumentException("Chunk size should be greater than zero");
+        }
+
+        this.file = file;
+        this.chunkInts = chunkInts;
+    }
+
+    /**
+     * Map the file and pass it to the consumer chunk by chunk
+     * @return false if the load was cancelled before reaching the end of the file
+     * @throws IOException if the file can not be read or its size is not a multiple of 4 bytes
+     */
+    public boolean load(Consumer consumer) throws IOException {
+        FileInputStream stream = new FileInputStream(file);
+        try {
+            FileChannel channel = stream.getChannel();
+            long size = channel.size();
+            if(size % 4 != 0) {
+                throw new IOException("Column file size is not a multiple of 4 bytes: " + size);
+            }
+
+            long windowBytes = WINDOW_BYTES - WINDOW_BYTES % 4;
+            for(long position = 0; position < size; position += windowBytes) {
+                IntBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowBytes, size - position))
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asIntBuffer()
+                        .asReadOnlyBuffer();
+                if(!consume(window, consumer)) {
+                    return false;
+                }
+            }
+            return !cancelled;
+        } finally {
+            stream.close();
+        }
+    }
+
+    private boolean consume(IntBuffer window, Consumer consumer) {
+        int limit = window.limit();
+        for(int start = 0; start < limit; start += chunkInts) {
+            if(cancelled) {
+                return false;
+            }
+
+            window.limit(Math.min(start + chunkInts, limit));
+            window.position(start);
+            consumer.onChunk(window.slice());
+            window.limit(limit);
+        }
+        return true;
+    }
+
+    /**
+     * Stop a load running in another thread after its current chunk. A cancelled loader stays
+     * cancelled, later loads return right away
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,115 @@
+package mx.segundamano.seekbars;
+
+import android.support.v4.view.ViewCompat;
+import android.view.KeyEvent;
+import android.view.View;
+
+/**
+ * Moves a value with the D-pad or keyboard arrows. Each repeat of a held key moves more steps
+ * than the previous one, and the repeats arriving in a frame are applied together once.
+ * The target is told when the key is released, so it can notify the final value only once.
+ */
+final class KeyStepper {
+    private static final double ACCELERATION = 1.25;
+    private static final long MAX_STEPS_PER_REPEAT = 1L << 24;
+
+    interface Target {
+        /**
+         * Move the value a count of steps
+         * @param count Steps to move, negative to move to lesser values
+         */
+        void onSteps(long count);
+
+        /**
+         * @param direction 1 for greater values, -1 for lesser values
+         * @return false if the value is already as far as it goes in that direction
+         */
+        boolean canStep(int direction);
+
+        void onStepsReleased();
+    }
+
+    private final View view;
+    private final Target target;
+    private long pendingSteps;
+    private boolean scheduled;
+    private boolean stepping;
+
+    private final Runnable applyPendingSteps = new Runnable() {
+        @Override
+        public void run() {
+            scheduled = false;
+            applyPendingSteps();
+        }
+    };
+
+    KeyStepper(View view, Target target) {
+        this.view = view;
+        this.target = target;
+    }
+
+    /**
+     * Direction of the value moved by a key
+     * @return 1 for greater values, -1 for lesser values, 0 for keys that do not move it
+     */
+    static int direction(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.KEYCODE_DPAD_RIGHT:
+            case KeyEvent.KEYCODE_PLUS:
+            case KeyEvent.KEYCODE_EQUALS:
+                return 1;
+            case KeyEvent.KEYCODE_DPAD_LEFT:
+            case KeyEvent.KEYCODE_MINUS:
+                return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * Steps moved by a repeat of a held key, growing geometrically with the repeats
+     */
+    static long stepsForRepeat(int repeatCount) {
+        double steps = Math.pow(ACCELERATION, repeatCount);
+        return steps >= MAX_STEPS_PER_REPEAT ? MAX_STEPS_PER_REPEAT : (long) steps;
+    }
+
+    /**
+     * @return false for keys that do not move the value, and for a new press that can not move
+     * it further, so focus can leave the view with it
+     */
+    boolean onKeyDown(int keyCode, KeyEvent event) {
+        int direction = direction(keyCode);
+        if(direction == 0 || (!stepping && !target.canStep(direction))) {
+            return false;
+        }
+
+        stepping = true;
+        pendingSteps += direction * stepsForRepeat(event.getRepeatCount());
+        if(!scheduled) {
+            scheduled = true;
+            ViewCompat.postOnAnimation(view, applyPendingSteps);
+        }
+        return true;
+    }
+
+    boolean onKeyUp(int keyCode, KeyEvent event) {
+        if(direction(keyCode) == 0 || !stepping) {
+            return false;
+        }
+
+        view.removeCallbacks(applyPendingSteps);
+        scheduled = false;
+        applyPendingSteps();
+        stepping = false;
+        target.onStepsReleased();
+        return true;
+    }
+
+    private void applyPendingSteps() {
+        if(pendingSteps != 0) {
+            long count = pendingSteps;
+            pendingSteps = 0;
+            target.onSteps(count);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package mx.segundamano.seekbars;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Copy-on-write set of listeners. Registration copies the array under a lock while dispatch
+ * reads the current array without locking nor allocating an iterator:
+ * <pre>
+ * Object[] entries = registry.entries();
+ * for(int i = 0; i < entries.length; i++) {
+ *     Listener l = registry.get(entries, i);
+ *     if(l != null) ...
+ * }
+ * </pre>
+ * Listeners can be held weakly, so a view outliving its Activity does not leak it.
+ */
+final class ListenerRegistry<T> {
+    private static final Object[] EMPTY = new Object[0];
+
+    private volatile Object[] entries = EMPTY;
+
+    synchronized void add(T listener, boolean weak) {
+        if(listener == null || indexOf(listener) >= 0) {
+            return;
+        }
+
+        Object[] current = purge();
+        Object[] updated = new Object[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = weak ? new WeakReference<>(listener) : listener;
+        entries = updated;
+    }
+
+    synchronized void remove(T listener) {
+        int index = indexOf(listener);
+        if(index < 0) {
+            return;
+        }
+
+        Object[] current = entries;
+        Object[] updated = new Object[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        entries = updated;
+    }
+
+    synchronized void clear() {
+        entries = EMPTY;
+    }
+
+    Object[] entries() {
+        return entries;
+    }
+
+    boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    /**
+     * Listener at an index of an array returned by entries()
+     * @return The listener, or null if it was held weakly and already collected
+     */
+    @SuppressWarnings("unchecked")
+    T get(Object[] entries, int index) {
+        Object entry = entries[index];
+        if(entry instanceof WeakReference) {
+            return ((WeakReference<T>) entry).get();
+        }
+        return (T) entry;
+    }
+
+    private int indexOf(T listener) {
+        Object[] current = entries;
+        for(int i = 0; i < current.length; i++) {
+            if(get(current, i) == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object[] purge() {
+        Object[] current = entries;
+        int alive = 0;
+        for(int i = 0; i < current.length; i++) {
+            if(get(current, i) != null) {
+                alive++;
+            }
+        }
+        if(alive == current.length) {
+            return current;
+        }
+
+        Object[] purged = new Object[alive];
+        for(int i = 0, j = 0; i < current.length; i++) {
+            if(get(current, i) != null) {
+                purged[j++] = current[i];
+            }
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,67 @@
+package mx.segundamano.seekbars;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Values requested from any thread, waiting to be applied on the UI thread.
+ * Instances are immutable; a newer request is merged over the one still pending so only the
+ * latest value of each field is applied, once per frame.
+ */
+final class PendingUpdate {
+    static final int RANGE = 1;
+    static final int STEPS = 1 << 1;
+    static final int MIN_VALUE = 1 << 2;
+    static final int MAX_VALUE = 1 << 3;
+
+    //Views not attached yet have no frame callbacks, their updates go through the main looper
+    static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    final int mask;
+    final long dataMin;
+    final long dataMax;
+    final long steps;
+    final long minValue;
+    final long maxValue;
+
+    PendingUpdate(int mask, long dataMin, long dataMax, long steps, long minValue, long maxValue) {
+        this.mask = mask;
+        this.dataMin = dataMin;
+        this.dataMax = dataMax;
+        this.steps = steps;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    boolean has(int field) {
+        return (mask & field) != 0;
+    }
+
+    private PendingUpdate mergeOver(PendingUpdate older) {
+        if(older == null) {
+            return this;
+        }
+
+        return new PendingUpdate(mask | older.mask,
+                has(RANGE) ? dataMin : older.dataMin,
+                has(RANGE) ? dataMax : older.dataMax,
+                has(STEPS) ? steps : older.steps,
+                has(MIN_VALUE) ? minValue : older.minValue,
+                has(MAX_VALUE) ? maxValue : older.maxValue);
+    }
+
+    /**
+     * Merge an update into the slot without locking
+     * @return true if the slot was empty and the caller should schedule applying it
+     */
+    static boolean post(AtomicReference<PendingUpdate> slot, PendingUpdate update) {
+        while(true) {
+            PendingUpdate older = slot.get();
+            if(slot.compareAndSet(older, update.mergeOver(older))) {
+                return older == null;
+            }
+        }
+    }
+}
@@ -1,24 +1,32 @@
 package mx.segundamano.seekbars;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
-import android.os.Parcel;
+import android.os.Build;
+import android.os.Bundle;
 import android.os.Parcelable;
 import android.support.v4.content.ContextCompat;
+import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
+import android.util.DisplayMetrics;
 import android.util.Log;
 import android.util.TypedValue;
+import android.view.KeyEvent;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.view.accessibility.AccessibilityEvent;
 import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.RemoteViews.RemoteView;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 
 @RemoteView
 public class SeekBarView extends View {
@@ -27,6 +35,8 @@ public class SeekBarView extends View {
     private static final int NO_ALPHA = 0xFF;
     private static final int ALPHA = 0x99;
     private static final int TIMEOUT_SEND_ACCESSIBILITY_EVENT = 200;
+    private static final int MIN_VISIBLE_STEPS = 4;
+    private static final long PREDICTION_MILLIS = 16;
     private AccessibilityEventSender mAccessibilityEventSender;
 
     // Drawing values
@@ -42,24 +52,116 @@ public class SeekBarView extends View {
     private RectF guide = new RectF();
     private RectF progress = new RectF();
 
+    //Value labels
+    private ValueLabel valueLabel;
+    private boolean showLabels;
+    private float labelBottom;
+
     //Drawing paints
     private Paint paintGuide = new Paint();
     private Paint paintProgress = new Paint();
     private Paint paintPointer = new Paint();
 
     //Data values
-    private int dataMin;
-    private int dataMax;
-    private int actDataValue;
-    private int steps;
-    private List<Step> stepList;
+    private long dataMin;
+    private long dataMax;
+    private long actDataValue;
+    private long steps;
+    private int decimalPlaces;
+    private ValueScale scale = new ValueScale();
+    private boolean scaleDirty = true;
+    private boolean adaptiveResolution;
+
+    //Zoom into a window of the range
+    private boolean zoomEnabled;
+    private boolean zoomed;
+    private boolean zooming;
+    private long viewMin;
+    private long viewMax;
+    private long touchStartValue;
+    private float previousFocusX;
+    private ScaleGestureDetector scaleDetector;
+    private EdgeIndicator edgeIndicator = new EdgeIndicator();
+
+    //Values attracting the pointers
+    private AnchorSet anchors = new AnchorSet();
+
+    //Values that can not be selected
+    private ExcludedIntervals excluded = new ExcludedIntervals();
+    private Paint paintExcluded = new Paint();
+    private float[] excludedLines = new float[0];
+    private int excludedLineCount;
+
+    //Low latency input, the pointer is drawn ahead of the finger
+    private boolean lowLatency;
+    private VelocityEstimator velocityEstimator = new VelocityEstimator();
+
+    //Predictions of the values a drag settles on
+    private final SettlePredictor settlePredictor = new SettlePredictor();
+    private OnSettlePredictionListener settleListener;
+
+    //Records the touch events for replaying them later
+    private GestureTraceRecorder traceRecorder;
+
+    //D-pad and keyboard stepping, once the view is focusable (keyStepping attribute)
+    private KeyStepper keyStepper = new KeyStepper(this, new KeyTarget());
+
+    //Step ticks shown while zoomed
+    private float tickSpacing;
+    private float tickHeight;
+    private float[] tickPositions = new float[0];
+    private float[] tickLines = new float[0];
+    private int tickCount;
+
+    //Releases the caches under memory pressure while attached
+    private final ComponentCallbacks2 trimCallbacks = new TrimCallbacks();
+    private final Rect visibleRect = new Rect();
 
     //Listener for callback value changes
     public interface OnInsertSeekBarListener {
         void onValueChanged(int value);
     }
 
+    /**
+     * Listener for value changes in the whole long range. With decimal places set, the value is
+     * the unscaled fixed-point value, for example centavos when there are 2 decimal places.
+     * The source is one of the {@link ChangeSource} constants.
+     */
+    public interface OnLongValueChangeListener {
+        void onValueChanged(long value, int source);
+    }
+
+    /**
+     * Listener for the value a drag is likely to settle on, reported while the finger is still down
+     * so the results for it can be prefetched. The final value still comes from the value listeners,
+     * a prediction that does not match it should be discarded.
+     */
+    public interface OnSettlePredictionListener {
+        void onSettlePredicted(long value);
+    }
+
     private OnInsertSeekBarListener listener;
+    private OnLongValueChangeListener longListener;
+    private final ListenerRegistry<OnLongValueChangeListener> listeners = new ListenerRegistry<>();
+    private boolean dispatching;
+
+    //Group this seek bar belongs to, changes are deferred while it is in a transaction
+    private SeekbarGroup group;
+    private int deferredSource;
+
+    //Persistent state across process death
+    private SeekbarStateStore stateStore;
+    private String stateKey;
+
+    //Values posted from other threads, applied once per frame
+    private final AtomicReference<PendingUpdate> pendingUpdate = new AtomicReference<>();
+    private final ValueAnimation valueAnimation = new ValueAnimation();
+    private final Runnable applyPendingUpdate = new Runnable() {
+        @Override
+        public void run() {
+            applyPendingUpdate();
+        }
+    };
 
     public SeekBarView(Context context) {
         this(context, null);
@@ -69,20 +171,28 @@ public class SeekBarView extends View {
         super(context, attrs);
         setSaveEnabled(true);
 
+        valueLabel = new ValueLabel(getResources().getDisplayMetrics());
+
         TypedArray ta = context.getTheme().obtainStyledAttributes(attrs, R.styleable.seekbar, 0, 0);
         try{
             setColors(context, ta);
             setValues(ta);
+            setLabels(context, ta);
+            valueLabel.setDecimalPlaces(decimalPlaces);
         } finally {
             ta.recycle();
         }
 
         paintGuide.setAntiAlias(true);
+        paintGuide.setStrokeWidth(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1, getResources().getDisplayMetrics()));
         paintProgress.setAntiAlias(true);
+        paintExcluded.setAntiAlias(true);
         paintPointer.setStyle(Paint.Style.FILL);
         paintPointer.setAntiAlias(true);
 
-        stepList = new ArrayList<>();
+        tickSpacing = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 6, getResources().getDisplayMetrics());
+        tickHeight = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 4, getResources().getDisplayMetrics());
+        settlePredictor.setThreshold(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 100, getResources().getDisplayMetrics()));
 
         normalPointer();
     }
@@ -91,12 +201,26 @@ public class SeekBarView extends View {
         paintPointer.setColor(ta.getColor(R.styleable.seekbar_pointerColor, ContextCompat.getColor(context, R.color.defaultPointerColor)));
         paintProgress.setColor(ta.getColor(R.styleable.seekbar_guideColor, ContextCompat.getColor(context, R.color.defaultGuideColor)));
         paintGuide.setColor(ta.getColor(R.styleable.seekbar_guideColor, ContextCompat.getColor(context, R.color.defaultBaseColor)));
+        paintExcluded.setColor(ta.getColor(R.styleable.seekbar_excludedColor, ContextCompat.getColor(context, R.color.defaultExcludedColor)));
+    }
+
+    private void setLabels(Context context, TypedArray ta) {
+        showLabels = ta.getBoolean(R.styleable.seekbar_showLabels, false);
+        lowLatency = ta.getBoolean(R.styleable.seekbar_lowLatency, false);
+        adaptiveResolution = ta.getBoolean(R.styleable.seekbar_adaptiveResolution, false);
+        if(ta.getBoolean(R.styleable.seekbar_keyStepping, false)) {
+            setFocusable(true);
+        }
+        valueLabel.setPrefix(ta.getString(R.styleable.seekbar_labelPrefix));
+        valueLabel.setBubbleColor(ta.getColor(R.styleable.seekbar_labelColor, ContextCompat.getColor(context, R.color.defaultLabelColor)));
+        valueLabel.setTextColor(ta.getColor(R.styleable.seekbar_labelTextColor, ContextCompat.getColor(context, R.color.defaultLabelTextColor)));
     }
 
     private void setValues(TypedArray ta) {
         dataMin = ta.getInt(R.styleable.seekbar_minVal, 0);
         dataMax = ta.getInt(R.styleable.seekbar_maxVal, 10);
         steps = ta.getInt(R.styleable.seekbar_steps, 1);
+        decimalPlaces = ta.getInt(R.styleable.seekbar_decimalPlaces, 0);
     }
 
     /**
@@ -111,19 +235,83 @@ public class SeekBarView extends View {
         return listener;
     }
 
+    /**
+     * Set OnLongValueChangeListener for receive value changes as long
+     * @param l
+     */
+    public void setOnLongValueChangeListener(OnLongValueChangeListener l) {
+        longListener = l;
+    }
+
+    public OnLongValueChangeListener getLongListener() {
+        return longListener;
+    }
+
+    /**
+     * Add a listener for value changes, besides the one set with setter. Listeners can be added and
+     * removed from any thread, they are always notified on the UI thread
+     * @param l Listener to add
+     */
+    public void addOnLongValueChangeListener(OnLongValueChangeListener l) {
+        listeners.add(l, false);
+    }
+
+    /**
+     * Add a listener for value changes
+     * @param l Listener to add
+     * @param weak true to hold the listener with a weak reference, so the seek bar does not keep it alive
+     */
+    public void addOnLongValueChangeListener(OnLongValueChangeListener l, boolean weak) {
+        listeners.add(l, weak);
+    }
+
+    /**
+     * Remove a listener added with addOnLongValueChangeListener
+     * @param l Listener to remove
+     */
+    public void removeOnLongValueChangeListener(OnLongValueChangeListener l) {
+        listeners.remove(l);
+    }
+
     /**
      * Set actual value in seek bar
      * @param actDataValue Value to be set between min value and max value, take in count the steps!
      */
     public void setActualValue(int actDataValue) {
+        setActualValue((long) actDataValue);
+    }
+
+    /**
+     * Set actual value in seek bar
+     * @param actDataValue Value to be set between min value and max value, take in count the steps!
+     */
+    public void setActualValue(long actDataValue) {
+        setActualValue(actDataValue, true);
+    }
+
+    /**
+     * Set actual value in seek bar. Setting the value it already has does nothing, and values
+     * set from inside a listener callback are applied without notifying the listeners again.
+     * @param actDataValue Value to be set between min value and max value, take in count the steps!
+     * @param notify false to apply the value without notifying the listeners
+     */
+    public void setActualValue(long actDataValue, boolean notify) {
         if(actDataValue < dataMin) {
              throw new IllegalArgumentException("Value is minor than mininum data set");
         } else if (actDataValue > dataMax) {
             throw new IllegalArgumentException("Value is major than maximum data set");
         }
 
+        if(this.actDataValue == actDataValue) {
+            return;
+        }
+
         this.actDataValue = actDataValue;
         updatePositionByStep(this.actDataValue);
+        if(notify) {
+            notifyValueChanged(ChangeSource.PROGRAMMATIC);
+        }
+        invalidate();
     }
 
     /**
@@ -131,6 +319,14 @@ public class SeekBarView extends View {
      * @return Actual value selected
      */
     public int getActDataValue() {
+        return (int) actDataValue;
+    }
+
+    /**
+     * Get the actual value in seek bar as long
+     * @return Actual value selected
+     */
+    public long getActDataValueAsLong() {
         return actDataValue;
     }
 
@@ -139,15 +335,24 @@ public class SeekBarView extends View {
      * @param dataMin Min value it can be selected
      */
     public void setDataMin(int dataMin) {
+        setDataMin((long) dataMin);
+    }
+
+    /**
+     * Set min value can be selected. By default this value is 0
+     * @param dataMin Min value it can be selected
+     */
+    public void setDataMin(long dataMin) {
         if(dataMin >= dataMax) {
             throw new IllegalArgumentException("Min value should be less than max value");
         }
 
         this.dataMin = dataMin;
+        invalidateScale();
         if(actDataValue < dataMin) {
             actDataValue = dataMin;
+            notifyValueChanged(ChangeSource.PROGRAMMATIC);
         }
-        setScale();
     }
 
     /**
@@ -155,6 +360,14 @@ public class SeekBarView extends View {
      * @return Min value set
      */
     public int getDataMin() {
+        return (int) dataMin;
+    }
+
+    /**
+     * Obtain the min value set in the seek bar as long
+     * @return Min value set
+     */
+    public long getDataMinAsLong() {
         return dataMin;
     }
 
@@ -163,15 +376,24 @@ public class SeekBarView extends View {
      * @param dataMax Max value it can be selected
      */
     public void setDataMax(int dataMax) {
+        setDataMax((long) dataMax);
+    }
+
+    /**
+     * Set max value can be selected. By default this value is 10
+     * @param dataMax Max value it can be selected
+     */
+    public void setDataMax(long dataMax) {
         if(dataMax <= dataMin) {
             throw new IllegalArgumentException("Max value should be greater than min value");
         }
 
         this.dataMax = dataMax;
+        invalidateScale();
         if(actDataValue > dataMax) {
             actDataValue = dataMax;
+            notifyValueChanged(ChangeSource.PROGRAMMATIC);
         }
-        setScale();
     }
 
     /**
@@ -179,6 +401,14 @@ public class SeekBarView extends View {
      * @return Max value set
      */
     public int getDataMax() {
+        return (int) dataMax;
+    }
+
+    /**
+     * Obtain the max value set in the seek bar as long
+     * @return Max value set
+     */
+    public long getDataMaxAsLong() {
         return dataMax;
     }
 
@@ -188,26 +418,135 @@ public class SeekBarView extends View {
      * @param steps Value of unit between each step
      */
     public void setSteps(int steps) {
+        setSteps((long) steps);
+    }
+
+    /**
+     * Set the value of unit that each step will have between dataMin value and dataMax value.
+     * The pointer will be set in the nearest step. By default this value is 1
+     * @param steps Value of unit between each step
+     */
+    public void setSteps(long steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("Steps should be greater than zero");
+        }
+
         this.steps = steps;
-        setScale();
+        invalidateScale();
     }
 
     public int getSteps() {
+        return (int) steps;
+    }
+
+    public long getStepsAsLong() {
         return steps;
     }
 
-    private void updatePositionByStep(int actDataValue) {
-        if(stepList == null || stepList.isEmpty()) {
-            this.actDataValue = actDataValue;
+    /**
+     * Use the values as fixed-point decimals with the given count of decimal places. Values keep
+     * being set and reported as long, for example 150050 with 2 decimal places is 1500.50
+     * @param decimalPlaces Count of decimal places, between 0 and 18. By default this value is 0
+     */
+    public void setDecimalPlaces(int decimalPlaces) {
+        if(decimalPlaces < 0 || decimalPlaces > FixedPoint.MAX_DECIMAL_PLACES) {
+            throw new IllegalArgumentException("Decimal places should be between 0 and " + FixedPoint.MAX_DECIMAL_PLACES);
+        }
+
+        this.decimalPlaces = decimalPlaces;
+        valueLabel.setDecimalPlaces(decimalPlaces);
+        invalidate();
+    }
+
+    public int getDecimalPlaces() {
+        return decimalPlaces;
+    }
+
+    /**
+     * Get the actual value in seek bar as a decimal number, taking in count the decimal places
+     * @return Actual value selected
+     */
+    public double getActDecimalValue() {
+        return FixedPoint.toDouble(actDataValue, decimalPlaces);
+    }
+
+    /**
+     * Request a new range from any thread. The latest requested values are applied on the UI
+     * thread on the next frame, so bursts of requests cause a single rebuild and redraw.
+     * @param dataMin Min value it can be selected
+     * @param dataMax Max value it can be selected
+     * @param steps Value of unit between each step
+     */
+    public void postRange(long dataMin, long dataMax, long steps) {
+        if(dataMin >= dataMax) {
+            throw new IllegalArgumentException("Min value should be less than max value");
+        } else if(steps <= 0) {
+            throw new IllegalArgumentException("Steps should be greater than zero");
+        }
+
+        schedule(new PendingUpdate(PendingUpdate.RANGE | PendingUpdate.STEPS, dataMin, dataMax, steps, 0, 0));
+    }
+
+    /**
+     * Request a new actual value from any thread. The latest requested value is applied on the
+     * UI thread on the next frame, clamped to the range it has at that moment.
+     * @param actDataValue Value to be set between min value and max value
+     */
+    public void postActualValue(long actDataValue) {
+        schedule(new PendingUpdate(PendingUpdate.MIN_VALUE, 0, 0, 0, actDataValue, 0));
+    }
+
+    private void schedule(PendingUpdate update) {
+        if(!PendingUpdate.post(pendingUpdate, update)) {
             return;
         }
 
-        for(Step step : stepList) {
-            if(step.value == actDataValue) {
-                updateStepPosition(step.drawValue);
-                break;
-            }
+        if(ViewCompat.isAttachedToWindow(this)) {
+            ViewCompat.postOnAnimation(this, applyPendingUpdate);
+        } else {
+            PendingUpdate.MAIN_HANDLER.post(applyPendingUpdate);
+        }
+    }
+
+    private void applyPendingUpdate() {
+        PendingUpdate update = pendingUpdate.getAndSet(null);
+        if(update == null) {
+            return;
+        }
+
+        if(update.has(PendingUpdate.RANGE)) {
+            dataMin = update.dataMin;
+            dataMax = update.dataMax;
+        }
+        if(update.has(PendingUpdate.STEPS)) {
+            steps = update.steps;
         }
+        if(update.has(PendingUpdate.RANGE) || update.has(PendingUpdate.STEPS)) {
+            invalidateScale();
+        }
+
+        long value = update.has(PendingUpdate.MIN_VALUE) ? update.minValue : actDataValue;
+        value = Math.max(dataMin, Math.min(dataMax, value));
+        if(value != actDataValue) {
+            actDataValue = value;
+            updatePositionByStep(actDataValue);
+            notifyValueChanged(ChangeSource.PROGRAMMATIC);
+        }
+        invalidate();
+    }
+
+    /**
+     * Map a data value to its pointer position. While the scale is not built yet the value is kept
+     * as data only and mapped to pixels the next time the scale is built.
+     * @param actDataValue Data value to map
+     */
+    private void updatePositionByStep(long actDataValue) {
+        if(scaleDirty) {
+            return;
+        }
+
+        drawActVal = scale.positionOf(actDataValue);
+        updateProgress();
     }
 
     /**
@@ -224,6 +563,7 @@ public class SeekBarView extends View {
      */
     public void setGuideBarColor(int color) {
         paintGuide.setColor(color);
+        invalidate();
     }
 
     /**
@@ -240,6 +580,7 @@ public class SeekBarView extends View {
      */
     public void setPaintRange(int color) {
         paintProgress.setColor(color);
+        invalidate();
     }
 
     /**
@@ -256,6 +597,433 @@ public class SeekBarView extends View {
      */
     public void setPointersColor(int color) {
         paintPointer.setColor(color);
+        invalidate();
+    }
+
+    /**
+     * Show a bubble with the actual value above the pointer
+     * @param showLabels true to show the value label
+     */
+    public void setShowValueLabels(boolean showLabels) {
+        if(this.showLabels != showLabels) {
+            this.showLabels = showLabels;
+            //The height can be exact and not change, the guide moves to make room for the labels anyway
+            requestLayout();
+            updateGuidePosition();
+            invalidateScale();
+        }
+    }
+
+    public boolean isShowValueLabels() {
+        return showLabels;
+    }
+
+    /**
+     * Set the text shown before the value in the label, for example a currency symbol
+     * @param prefix Label prefix, null for none
+     */
+    public void setLabelPrefix(String prefix) {
+        valueLabel.setPrefix(prefix);
+        invalidate();
+    }
+
+    public String getLabelPrefix() {
+        return valueLabel.getPrefix();
+    }
+
+    /**
+     * Set the char used to separate thousands in the label. By default this value is ','
+     * @param separator Thousands separator
+     */
+    public void setLabelGroupingSeparator(char separator) {
+        valueLabel.setGroupingSeparator(separator);
+        invalidate();
+    }
+
+    /**
+     * Set the label bubble color value
+     * @param color Label bubble color value
+     */
+    public void setLabelColor(int color) {
+        valueLabel.setBubbleColor(color);
+        invalidate();
+    }
+
+    public int getLabelColor() {
+        return valueLabel.getBubbleColor();
+    }
+
+    /**
+     * Set the label text color value
+     * @param color Label text color value
+     */
+    public void setLabelTextColor(int color) {
+        valueLabel.setTextColor(color);
+        invalidate();
+    }
+
+    public int getLabelTextColor() {
+        return valueLabel.getTextColor();
+    }
+
+    /**
+     * Allow narrowing the visible window of the range with a pinch, to select precise values in
+     * ranges much wider than the view. Moving the fingers while pinching moves the window
+     * @param zoomEnabled true to allow zooming
+     */
+    public void setZoomEnabled(boolean zoomEnabled) {
+        this.zoomEnabled = zoomEnabled;
+        if(zoomEnabled && scaleDetector == null) {
+            scaleDetector = new ScaleGestureDetector(getContext(), new ZoomListener());
+        }
+    }
+
+    public boolean isZoomEnabled() {
+        return zoomEnabled;
+    }
+
+    /**
+     * Show only a window of the range. A value outside of it is shown as an arrow at the edge of the guide
+     * @param viewMin First value shown
+     * @param viewMax Last value shown
+     */
+    public void setViewport(long viewMin, long viewMax) {
+        if(viewMin < dataMin || viewMax > dataMax) {
+            throw new IllegalArgumentException("Viewport is out of the data set");
+        } else if(viewMin >= viewMax) {
+            throw new IllegalArgumentException("Viewport min should be less than viewport max");
+        }
+
+        this.viewMin = viewMin;
+        this.viewMax = viewMax;
+        zoomed = true;
+        invalidateScale();
+    }
+
+    /**
+     * Show the whole range again
+     */
+    public void resetViewport() {
+        zoomed = false;
+        invalidateScale();
+    }
+
+    public long getViewportMin() {
+        return zoomed ? viewMin : dataMin;
+    }
+
+    public long getViewportMax() {
+        return zoomed ? viewMax : dataMax;
+    }
+
+    private long getMinViewportSpan() {
+        return steps > Long.MAX_VALUE / MIN_VISIBLE_STEPS ? Long.MAX_VALUE : steps * MIN_VISIBLE_STEPS;
+    }
+
+    private void readViewport() {
+        zoomed = scale.isZoomed();
+        viewMin = scale.getViewMin();
+        viewMax = scale.getViewMax();
+    }
+
+    private void updateTicks() {
+        tickCount = zoomed ? scale.stepPositions(tickPositions, tickSpacing) : 0;
+        for(int i = 0; i < tickCount; i++) {
+            tickLines[i * 4] = tickPositions[i];
+            tickLines[i * 4 + 1] = guideTop - tickHeight;
+            tickLines[i * 4 + 2] = tickPositions[i];
+            tickLines[i * 4 + 3] = guideBottom + tickHeight;
+        }
+    }
+
+    private class ZoomListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+        @Override
+        public boolean onScaleBegin(ScaleGestureDetector detector) {
+            if(scaleDirty) {
+                return false;
+            }
+
+            zooming = true;
+            previousFocusX = detector.getFocusX();
+            //The first finger already moved the pointer, a pinch should not change the value
+            if(actDataValue != touchStartValue) {
+                actDataValue = touchStartValue;
+                updatePositionByStep(actDataValue);
+                notifyValueChanged(ChangeSource.TOUCH);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean onScale(ScaleGestureDetector detector) {
+            float focusX = detector.getFocusX();
+            if(scale.zoom(focusX, previousFocusX, detector.getScaleFactor(), getMinViewportSpan())) {
+                readViewport();
+                updatePositionByStep(actDataValue);
+                updateTicks();
+                updateExcludedLines();
+                invalidate();
+            }
+            previousFocusX = focusX;
+            return true;
+        }
+    }
+
+    /**
+     * Set values that attract the pointer while it is dragged near them, like round prices. The pointer
+     * stops exactly on an anchor even when it is not on a step
+     * @param anchors Anchor values sorted in ascending order, null to remove them
+     * @param radius Distance in pixels at which an anchor attracts the pointer
+     */
+    public void setAnchors(long[] anchors, float radius) {
+        this.anchors.set(anchors, radius);
+    }
+
+    public long[] getAnchors() {
+        return anchors.get();
+    }
+
+    /**
+     * Set intervals of values that can not be selected. They are drawn greyed and the pointer skips them
+     * @param starts First excluded value of each interval, null to remove them
+     * @param ends Last excluded value of each interval, at the same index of its start
+     */
+    public void setExcludedIntervals(long[] starts, long[] ends) {
+        excluded.set(starts, ends);
+        ensureLineBuffers();
+        updateExcludedLines();
+        invalidate();
+    }
+
+    /**
+     * Set the color of the excluded intervals
+     * @param color Excluded intervals color value
+     */
+    public void setExcludedColor(int color) {
+        paintExcluded.setColor(color);
+        invalidate();
+    }
+
+    public int getExcludedColor() {
+        return paintExcluded.getColor();
+    }
+
+    private void updateExcludedLines() {
+        excludedLineCount = scaleDirty ? 0 : excluded.fillLines(scale, drawMiddleHeight, excludedLines);
+    }
+
+    /**
+     * Value at a pointer position, the nearest anchor if there is one inside its radius,
+     * otherwise the nearest step, moved out of the excluded intervals
+     */
+    private long valueAt(float drawValue) {
+        int anchor = anchors.find(scale, drawValue);
+        long value = anchor >= 0 ? anchors.valueAt(anchor) : scale.valueAt(drawValue);
+        return excluded.nearestAllowed(value, scale);
+    }
+
+    /**
+     * Reduce the lag between the finger and the pointer drawn on fast drags. Touch events are
+     * dispatched as they arrive on Lollipop and later, and the pointer is drawn a frame ahead at the
+     * velocity of the finger. The values reported keep coming only from the real touch positions
+     * @param lowLatency true to enable the low latency mode
+     */
+    public void setLowLatency(boolean lowLatency) {
+        this.lowLatency = lowLatency;
+    }
+
+    public boolean isLowLatency() {
+        return lowLatency;
+    }
+
+    /**
+     * Report the value a drag is likely to settle on when the dragged pointer slows down below the
+     * settle velocity threshold. A drag that speeds up and slows down again reports again
+     * @param l Listener, or null to stop the predictions
+     */
+    public void setOnSettlePredictionListener(OnSettlePredictionListener l) {
+        settleListener = l;
+    }
+
+    public OnSettlePredictionListener getSettlePredictionListener() {
+        return settleListener;
+    }
+
+    /**
+     * @param pixelsPerSecond Speed below which the dragged pointer is considered to be settling.
+     * By default it is 100dp per second
+     */
+    public void setSettleVelocityThreshold(float pixelsPerSecond) {
+        settlePredictor.setThreshold(pixelsPerSecond);
+    }
+
+    public float getSettleVelocityThreshold() {
+        return settlePredictor.getThreshold();
+    }
+
+    /**
+     * Record the touch events reaching this seek bar, to replay them with a {@link GestureTraceReplayer}
+     * @param recorder Recorder to append the events to, or null to stop recording
+     */
+    public void setGestureTraceRecorder(GestureTraceRecorder recorder) {
+        traceRecorder = recorder;
+    }
+
+    public GestureTraceRecorder getGestureTraceRecorder() {
+        return traceRecorder;
+    }
+
+    private float predictPosition(float x) {
+        if(!lowLatency) {
+            return x;
+        }
+        return velocityEstimator.predict(x, PREDICTION_MILLIS, circleRadius * 2);
+    }
+
+    /**
+     * Snap touches only to as many values as there are pixels in the guide, when there are more
+     * steps than that. The values between them can still be selected step by step with
+     * accessibility actions, or by zooming in
+     * @param adaptiveResolution true to limit the touch resolution to the guide pixels
+     */
+    public void setAdaptiveResolution(boolean adaptiveResolution) {
+        this.adaptiveResolution = adaptiveResolution;
+        invalidateScale();
+    }
+
+    public boolean isAdaptiveResolution() {
+        return adaptiveResolution;
+    }
+
+    /**
+     * Animate the pointer to a value. All the seek bars animate from a single frame callback, and
+     * the listeners are notified once when the animation ends
+     * @param actDataValue Value to be set between min value and max value
+     * @param durationMillis Duration of the animation
+     */
+    public void animateTo(long actDataValue, long durationMillis) {
+        if(actDataValue < dataMin || actDataValue > dataMax) {
+            throw new IllegalArgumentException("Value is out of the data set");
+        }
+
+        SeekbarAnimator animator = SeekbarAnimator.getInstance();
+        animator.cancel(valueAnimation);
+        if(scaleDirty || !ViewCompat.isAttachedToWindow(this)) {
+            setActualValue(actDataValue);
+            return;
+        }
+
+        valueAnimation.fromValue = this.actDataValue;
+        valueAnimation.toValue = actDataValue;
+        valueAnimation.durationNanos = durationMillis * 1000000L;
+        valueAnimation.startTimeNanos = -1;
+        animator.start(valueAnimation);
+    }
+
+    /**
+     * Stop the running animation, leaving the pointer on the step it reached. The listeners are
+     * notified if it moved
+     */
+    public void cancelAnimation() {
+        SeekbarAnimator animator = SeekbarAnimator.getInstance();
+        if(!animator.isRunning(valueAnimation)) {
+            return;
+        }
+
+        animator.cancel(valueAnimation);
+        if(actDataValue != valueAnimation.fromValue) {
+            notifyValueChanged(ChangeSource.PROGRAMMATIC);
+        }
+    }
+
+    public boolean isAnimating() {
+        return SeekbarAnimator.getInstance().isRunning(valueAnimation);
+    }
+
+    private class ValueAnimation implements SeekbarAnimator.Target {
+        long fromValue;
+        long toValue;
+        long durationNanos;
+        long startTimeNanos;
+
+        @Override
+        public boolean onAnimationFrame(long frameTimeNanos) {
+            if(startTimeNanos < 0) {
+                startTimeNanos = frameTimeNanos;
+            }
+            float fraction = durationNanos <= 0 ? 1f : Math.min(1f, (frameTimeNanos - startTimeNanos) / (float) durationNanos);
+
+            //Values in between stay on the step grid, the last one is the exact target
+            long value = SeekbarAnimator.lerp(fromValue, toValue, SeekbarAnimator.interpolate(fraction));
+            actDataValue = fraction < 1f ? scale.snap(value) : toValue;
+            updatePositionByStep(actDataValue);
+            invalidate();
+            return fraction < 1f;
+        }
+
+        @Override
+        public void onAnimationEnd() {
+            notifyValueChanged(ChangeSource.PROGRAMMATIC);
+        }
+    }
+
+    /**
+     * Keep the range and value of this seek bar in a store that survives process death. If the
+     * store has a state for the key it is restored, once the store is loaded
+     * @param store Store to keep the state in, null to stop keeping it
+     * @param key Id of this seek bar in the store
+     */
+    public void setStateStore(final SeekbarStateStore store, final String key) {
+        stateStore = store;
+        stateKey = key;
+        if(store == null) {
+            return;
+        }
+
+        final long[] stateBeforeLoad = stateValues();
+        store.get(key, new SeekbarStateStore.Callback() {
+            @Override
+            public void onStateLoaded(long[] values) {
+                //A range or value set while the store was loading is newer than the stored one
+                if(stateStore == store && key.equals(stateKey)
+                        && Arrays.equals(stateBeforeLoad, stateValues())) {
+                    restoreState(values);
+                }
+            }
+        });
+    }
+
+    private void persistState() {
+        if(stateStore != null) {
+            stateStore.put(stateKey, stateValues());
+        }
+    }
+
+    private long[] stateValues() {
+        return new long[]{dataMin, dataMax, steps, actDataValue};
+    }
+
+    private void restoreState(long[] values) {
+        if(values.length < 4 || values[0] >= values[1] || values[2] <= 0
+                || values[3] < values[0] || values[3] > values[1]) {
+            return;
+        }
+
+        dataMin = values[0];
+        dataMax = values[1];
+        steps = values[2];
+        actDataValue = values[3];
+        invalidateScale();
+        notifyValueChanged(ChangeSource.RESTORE);
+    }
+
+    /**
+     * Take a copy of the range, value and colors, to draw it off screen with {@link SeekbarBitmapRenderer}
+     * @return Snapshot of the seek bar
+     */
+    public SeekbarSnapshot snapshot() {
+        return new SeekbarSnapshot(dataMin, dataMax, dataMin, actDataValue, false,
+                paintGuide.getColor(), paintProgress.getColor(), paintPointer.getColor());
     }
 
     @Override
@@ -264,7 +1032,9 @@ public class SeekBarView extends View {
 
         paintPointer.setAlpha(enabled ? NO_ALPHA : ALPHA);
         paintProgress.setAlpha(enabled ? NO_ALPHA : ALPHA);
+        paintExcluded.setAlpha(enabled ? NO_ALPHA : ALPHA);
         paintGuide.setAlpha(enabled ? NO_ALPHA : ALPHA);
+        valueLabel.setAlpha(enabled ? NO_ALPHA : ALPHA);
 
         invalidate();
     }
@@ -287,9 +1057,54 @@ public class SeekBarView extends View {
 
         if (isEnabled()) {
             info.addAction(-1000920);
+            info.setScrollable(true);
+            info.addAction(AccessibilityNodeInfo.ACTION_SCROLL_FORWARD);
+            info.addAction(AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD);
         }
     }
 
+    @Override
+    public boolean performAccessibilityAction(int action, Bundle arguments) {
+        if(super.performAccessibilityAction(action, arguments)) {
+            return true;
+        } else if(!isEnabled()) {
+            return false;
+        }
+
+        switch (action) {
+            case AccessibilityNodeInfo.ACTION_SCROLL_FORWARD:
+                return adjustValue(true);
+            case AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD:
+                return adjustValue(false);
+        }
+        return false;
+    }
+
+    /**
+     * Move the value one step, finer than touch can when the resolution is adaptive
+     * @param forward true to move to greater values
+     * @return true if the value changed
+     */
+    private boolean adjustValue(boolean forward) {
+        ensureScale();
+        if(scaleDirty) {
+            return false;
+        }
+
+        long value = excluded.stepAllowed(actDataValue, forward, scale);
+        if(value == actDataValue) {
+            return false;
+        }
+
+        cancelAnimation();
+        actDataValue = value;
+        updatePositionByStep(actDataValue);
+        invalidate();
+        notifyValueChanged(ChangeSource.ADJUSTMENT);
+        scheduleAccessibilityEventSender();
+        return true;
+    }
+
     private void scheduleAccessibilityEventSender() {
         if (mAccessibilityEventSender == null) {
             mAccessibilityEventSender = new AccessibilityEventSender();
@@ -305,27 +1120,138 @@ public class SeekBarView extends View {
         }
     }
 
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if(isEnabled() && keyStepper.onKeyDown(keyCode, event)) {
+            return true;
+        }
+        return super.onKeyDown(keyCode, event);
+    }
+
+    @Override
+    public boolean onKeyUp(int keyCode, KeyEvent event) {
+        if(keyStepper.onKeyUp(keyCode, event)) {
+            return true;
+        }
+        return super.onKeyUp(keyCode, event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+
+        if(gainFocus) {
+            pressedPointer();
+        } else {
+            normalPointer();
+        }
+        invalidate();
+    }
+
+    /**
+     * Moves the value with the keys straight on the step grid, and notifies it once the key is released
+     */
+    private class KeyTarget implements KeyStepper.Target {
+        private boolean moved;
+        private long valueBeforeKeys;
+
+        @Override
+        public void onSteps(long count) {
+            ensureScale();
+            if(scaleDirty) {
+                return;
+            }
+            if(!moved) {
+                moved = true;
+                valueBeforeKeys = actDataValue;
+            }
+
+            long value = steppedValue(count);
+            if(value != actDataValue) {
+                cancelAnimation();
+                actDataValue = value;
+                updatePositionByStep(actDataValue);
+                invalidate();
+            }
+        }
+
+        @Override
+        public boolean canStep(int direction) {
+            ensureScale();
+            return !scaleDirty && steppedValue(direction) != actDataValue;
+        }
+
+        private long steppedValue(long count) {
+            long value = scale.offsetSteps(actDataValue, count);
+            if(excluded.indexOf(value) >= 0) {
+                value = excluded.stepAllowed(value, count > 0, scale);
+                value = excluded.nearestAllowed(value, scale);
+            }
+            return value;
+        }
+
+        @Override
+        public void onStepsReleased() {
+            if(moved && actDataValue != valueBeforeKeys) {
+                notifyValueChanged(ChangeSource.ADJUSTMENT);
+                scheduleAccessibilityEventSender();
+            }
+            moved = false;
+        }
+    }
+
     @Override
     public boolean onTouchEvent(MotionEvent event) {
+        if(traceRecorder != null) {
+            traceRecorder.record(event);
+        }
         if(!isEnabled()) {
             return false;
         }
 
-
+        ensureScale();
+        if(zoomEnabled) {
+            scaleDetector.onTouchEvent(event);
+        }
         switch (event.getAction() & MotionEvent.ACTION_MASK) {
             case MotionEvent.ACTION_DOWN:
+                cancelAnimation();
+                zooming = false;
+                touchStartValue = actDataValue;
+                startLowLatencyTracking(event);
                 pressedPointer();
-                updateStepPosition(event.getX());
+                updateStepPosition(event.getX(), event.getX());
                 break;
             case MotionEvent.ACTION_UP:
                 normalPointer();
+                if(!zooming) {
+                    updateStepPosition(event.getX(), event.getX());
+                }
+                invalidate();
+                //A tap on the pointer changes nothing to save
+                if(actDataValue != touchStartValue) {
+                    persistState();
+                }
+                break;
             case MotionEvent.ACTION_MOVE:
-                updateStepPosition(event.getX());
+                velocityEstimator.addMovement(event);
+                if(!zooming) {
+                    updateStepPosition(event.getX(), predictPosition(event.getX()));
+                    predictSettle(event.getX());
+                }
                 break;
         }
         return true;
     }
 
+    private void predictSettle(float x) {
+        if(settleListener == null || scaleDirty || !settlePredictor.onMove(velocityEstimator)) {
+            return;
+        }
+
+        settleListener.onSettlePredicted(valueAt(settlePredictor.settlePosition(velocityEstimator, x, circleRadius * 2)));
+    }
+
     private void normalPointer() {
         circleRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 9, getResources().getDisplayMetrics());
     }
@@ -334,41 +1260,133 @@ public class SeekBarView extends View {
         circleRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 12, getResources().getDisplayMetrics());
     }
 
-    private void updateStepPosition(float val) {
-        if(val < drawMin) {
-            drawActVal = drawMin + 1;
-        } else if (val > drawMax) {
-            drawActVal = drawMax;
-        } else {
-            drawActVal = val;
+    private void startLowLatencyTracking(MotionEvent event) {
+        velocityEstimator.clear();
+        settlePredictor.reset();
+        velocityEstimator.addMovement(event);
+        if(lowLatency && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            requestUnbufferedDispatch(event);
         }
+    }
 
-        for(Step step : stepList) {
-            if(step.contains(drawActVal)) {
-                actDataValue = step.value;
-                drawActVal = step.drawValue;
-                break;
-            }
+    /**
+     * Move the pointer to a touch position
+     * @param val Real touch position, the value comes only from it
+     * @param drawVal Position the pointer is drawn at, ahead of the touch in low latency mode
+     */
+    private void updateStepPosition(float val, float drawVal) {
+        if(scaleDirty) {
+            return;
         }
 
+        long value = valueAt(val);
+        drawActVal = scale.positionOf(drawVal == val ? value : valueAt(drawVal));
         updateProgress();
         invalidate();
+
+        if(value != actDataValue) {
+            actDataValue = value;
+            notifyValueChanged(ChangeSource.TOUCH);
+        }
     }
 
     private void updateProgress() {
         progress.set(drawMin, guideTop, drawActVal, guideBottom);
-        if(listener != null) {
-            listener.onValueChanged(actDataValue);
-        } else {
-            Log.d(TAG, "Val: " + drawActVal + " - " + actDataValue);
+    }
+
+    /**
+     * Notify the listeners about the actual value. Changes made by the listeners while they are
+     * being notified are not notified again, which breaks loops between the seek bar and
+     * views bound to its value.
+     * @param source One of the ChangeSource constants
+     */
+    private void notifyValueChanged(int source) {
+        if(dispatching) {
+            return;
+        } else if(group != null && group.deferChange(this)) {
+            deferredSource = source;
+            return;
+        }
+
+        dispatching = true;
+        try {
+            if(longListener != null) {
+                longListener.onValueChanged(actDataValue, source);
+            }
+            Object[] entries = listeners.entries();
+            for(int i = 0; i < entries.length; i++) {
+                OnLongValueChangeListener l = listeners.get(entries, i);
+                if(l != null) {
+                    l.onValueChanged(actDataValue, source);
+                }
+            }
+            //Restored values come from the store or the saved instance state, not from a change
+            if(source != ChangeSource.TOUCH && source != ChangeSource.RESTORE) {
+                persistState();
+            }
+            if(listener != null) {
+                listener.onValueChanged((int) actDataValue);
+            } else if(longListener == null && listeners.isEmpty()) {
+                Log.d(TAG, "Val: " + drawActVal + " - " + actDataValue);
+            }
+        } finally {
+            dispatching = false;
         }
+
+        if(group != null) {
+            group.onChildChanged(this);
+        }
+    }
+
+    void setGroup(SeekbarGroup group) {
+        this.group = group;
+    }
+
+    /**
+     * Notify the change deferred during a group transaction
+     */
+    void dispatchDeferredChange() {
+        notifyValueChanged(deferredSource);
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
+        ensureScale();
         canvas.drawRect(guide, paintGuide);
         canvas.drawRect(progress, paintProgress);
-        canvas.drawCircle(drawActVal, drawMiddleHeight, circleRadius, paintPointer);
+        if(excludedLineCount > 0) {
+            canvas.drawLines(excludedLines, 0, excludedLineCount, paintExcluded);
+        }
+        if(tickCount > 0) {
+            canvas.drawLines(tickLines, 0, tickCount * 4, paintGuide);
+        }
+        if(!zoomed || scale.isVisible(actDataValue)) {
+            canvas.drawCircle(drawActVal, drawMiddleHeight, circleRadius, paintPointer);
+        } else {
+            edgeIndicator.draw(canvas, drawActVal, drawMiddleHeight, circleRadius, actDataValue < viewMin, paintPointer);
+        }
+        if(showLabels) {
+            valueLabel.draw(canvas, actDataValue, drawActVal, labelBottom);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(trimCallbacks);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getContext().getApplicationContext().unregisterComponentCallbacks(trimCallbacks);
+
+        if(isAnimating()) {
+            SeekbarAnimator.getInstance().cancel(valueAnimation);
+            actDataValue = valueAnimation.toValue;
+            updatePositionByStep(actDataValue);
+            notifyValueChanged(ChangeSource.PROGRAMMATIC);
+        }
     }
 
     @Override
@@ -381,116 +1399,182 @@ public class SeekBarView extends View {
         drawMax = w - getPaddingRight() - paddings;
         drawActVal = drawMin;
 
-        drawMiddleHeight = h/2;
+        updateGuidePosition();
+        scaleDirty = true;
+        ensureScale();
+    }
+
+    /**
+     * Center the guide in the height left below the labels
+     */
+    private void updateGuidePosition() {
+        float labelSpace = showLabels ? getLabelSpace() : 0;
+        float top = getPaddingTop() + labelSpace;
+        drawMiddleHeight = top + (getHeight() - getPaddingBottom() - top) / 2;
+        labelBottom = drawMiddleHeight - TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 14, getResources().getDisplayMetrics());
         guideTop = (int) (drawMiddleHeight - TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 2, getResources().getDisplayMetrics()));
         guideBottom = (int) (drawMiddleHeight + TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 2, getResources().getDisplayMetrics()));
 
         guide.set(drawMin, guideTop, drawMax, guideBottom);
+        paintExcluded.setStrokeWidth(guideBottom - guideTop);
+    }
+
+    /**
+     * Mark the scale as stale. It will be rebuilt once on the next layout, draw or touch.
+     */
+    private void invalidateScale() {
+        scaleDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Build the scale if it is stale and the view already has a real width.
+     */
+    private void ensureScale() {
+        if(!scaleDirty || drawMax <= drawMin) {
+            return;
+        }
+
         setScale();
     }
 
     private void setScale() {
-        stepList.clear();
-
-        int range = (dataMax - dataMin) / steps;
-        float drawRange = drawMax - drawMin;
-        float longStep = drawRange / range;
-        float actDrawStep = drawMin;
-        for(int actStep = dataMin; actStep <= dataMax; actStep+=steps, actDrawStep += longStep) {
-            stepList.add(new Step(actStep, actDrawStep, longStep));
+        scaleDirty = false;
+        ensureLineBuffers();
+        scale.setRange(dataMin, dataMax, steps);
+        scale.setAdaptiveResolution(adaptiveResolution);
+        if(zoomed) {
+            scale.setViewport(viewMin, viewMax);
+        } else {
+            scale.resetViewport();
         }
+        readViewport();
+        scale.setDrawRange(drawMin, drawMax);
 
         updatePositionByStep(actDataValue);
+        updateTicks();
+        updateExcludedLines();
     }
 
-    private class Step {
-        int value;
-        float drawValue;
-        float minRangeValue;
-        float maxRangeValue;
+    /**
+     * Size the buffers of the step ticks and excluded intervals lines for the actual draw range
+     * and intervals, they are dropped when memory is trimmed
+     */
+    private void ensureLineBuffers() {
+        int maxTicks = drawMax > drawMin ? (int) ((drawMax - drawMin) / tickSpacing) + 2 : 0;
+        if(tickPositions.length != maxTicks) {
+            tickPositions = new float[maxTicks];
+            tickLines = new float[maxTicks * 4];
+        }
+        if(excludedLines.length != excluded.size() * 4) {
+            excludedLines = new float[excluded.size() * 4];
+        }
+    }
 
-        public Step(int value, float drawValue, float longStep) {
-            this.value = value;
-            this.drawValue = drawValue;
-            this.minRangeValue = drawValue - (longStep/2);
-            this.maxRangeValue = drawValue + (longStep/2);
+    /**
+     * Drop the buffers derived from the scale, keeping only the configuration and the values.
+     * They are rebuilt from the values on the next layout, draw or touch
+     */
+    private void releaseCaches() {
+        tickPositions = new float[0];
+        tickLines = new float[0];
+        tickCount = 0;
+        excludedLines = new float[0];
+        excludedLineCount = 0;
+        scaleDirty = true;
+    }
+
+    /**
+     * Whether no part of the seek bar is on screen, like in a hidden tab
+     */
+    private boolean isOffScreen() {
+        return !isShown() || !getGlobalVisibleRect(visibleRect);
+    }
+
+    private class TrimCallbacks implements ComponentCallbacks2 {
+        @Override
+        public void onTrimMemory(int level) {
+            if(level >= TRIM_MEMORY_UI_HIDDEN || (level >= TRIM_MEMORY_RUNNING_LOW && isOffScreen())) {
+                releaseCaches();
+            }
         }
 
-        public boolean contains(float drawActVal) {
-            return minRangeValue <= drawActVal && drawActVal < maxRangeValue;
+        @Override
+        public void onLowMemory() {
+            if(isOffScreen()) {
+                releaseCaches();
+            }
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
         }
     }
 
+    private float getLabelSpace() {
+        return valueLabel.getHeight() + TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 2, getResources().getDisplayMetrics());
+    }
+
+    /**
+     * Width fills the space given unless it is unspecified, height fits the pressed pointer and
+     * the labels. Value, color and enabled changes never change the size, so they only invalidate.
+     */
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        int height = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 30, getResources().getDisplayMetrics());
-        setMeasuredDimension(widthMeasureSpec, height);
+        DisplayMetrics metrics = getResources().getDisplayMetrics();
+        float sidePaddings = 2 * TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 30, metrics);
+        float pointerHeight = 2 * TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 12, metrics);
+        float height = Math.max(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 30, metrics), pointerHeight);
+        if(showLabels) {
+            height += getLabelSpace();
+        }
+
+        int minWidth = Math.max(getSuggestedMinimumWidth(), (int) Math.ceil(sidePaddings + pointerHeight) + getPaddingLeft() + getPaddingRight());
+        int minHeight = Math.max(getSuggestedMinimumHeight(), (int) Math.ceil(height) + getPaddingTop() + getPaddingBottom());
+        int width = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                ? minWidth : Math.max(minWidth, MeasureSpec.getSize(widthMeasureSpec));
+
+        setMeasuredDimension(resolveSizeAndState(width, widthMeasureSpec, 0),
+                resolveSizeAndState(minHeight, heightMeasureSpec, 0));
     }
 
     @Override
     public Parcelable onSaveInstanceState() {
         Parcelable superState = super.onSaveInstanceState();
-        SavedState ss = new SavedState(superState);
-        ss.minValue = getDataMin();
-        ss.maxValue = getDataMax();
-        ss.actValue = getActDataValue();
+        SeekbarSavedState ss = new SeekbarSavedState(superState);
+        ss.fields = SeekbarSavedState.FIELD_RANGE | SeekbarSavedState.FIELD_STEPS
+                | SeekbarSavedState.FIELD_MIN_VALUE | SeekbarSavedState.FIELD_DECIMAL_PLACES;
+        ss.dataMin = dataMin;
+        ss.dataMax = dataMax;
         ss.steps = steps;
+        ss.minValue = actDataValue;
+        ss.decimalPlaces = decimalPlaces;
         return ss;
     }
 
     @Override
     public void onRestoreInstanceState(Parcelable state) {
-        if(!(state instanceof SavedState)) {
+        if(!(state instanceof SeekbarSavedState)) {
             super.onRestoreInstanceState(state);
             return;
         }
-        SavedState ss = (SavedState) state;
+        SeekbarSavedState ss = (SeekbarSavedState) state;
         super.onRestoreInstanceState(ss.getSuperState());
-        setDataMin(ss.minValue);
-        setDataMax(ss.maxValue);
-        setActualValue(ss.actValue);
-        setSteps(ss.steps);
-    }
-
-    static class SavedState extends BaseSavedState {
-        Parcelable superState;
-        int minValue;
-        int maxValue;
-        int actValue;
-        int steps;
-
-        SavedState(Parcelable superState) {
-            super(EMPTY_STATE);
-            this.superState = superState;
+        if(ss.has(SeekbarSavedState.FIELD_RANGE)) {
+            dataMin = ss.dataMin;
+            dataMax = ss.dataMax;
         }
-
-        private SavedState(Parcel in) {
-            super(in);
-            this.superState = in.readParcelable(SeekBarView.SavedState.class.getClassLoader());
-            minValue = in.readInt();
-            maxValue = in.readInt();
-            actValue = in.readInt();
-            steps = in.readInt();
+        if(ss.has(SeekbarSavedState.FIELD_STEPS)) {
+            steps = ss.steps;
         }
-
-        @Override
-        public void writeToParcel(Parcel out, int flags) {
-            super.writeToParcel(out, flags);
-            out.writeParcelable(superState, flags);
-            out.writeInt(minValue);
-            out.writeInt(maxValue);
-            out.writeInt(actValue);
-            out.writeInt(steps);
-        }
-
-        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
-            public SavedState createFromParcel(Parcel in) {
-                return new SavedState(in);
-            }
-
-            public SavedState[] newArray(int size) {
-                return new SavedState[size];
-            }
-        };
+        if(ss.has(SeekbarSavedState.FIELD_MIN_VALUE)) {
+            actDataValue = ss.minValue;
+        }
+        if(ss.has(SeekbarSavedState.FIELD_DECIMAL_PLACES)) {
+            decimalPlaces = ss.decimalPlaces;
+            valueLabel.setDecimalPlaces(decimalPlaces);
+        }
+        invalidateScale();
+        notifyValueChanged(ChangeSource.RESTORE);
     }
 }
@@ -0,0 +1,157 @@
+package mx.segundamano.seekbars;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * Drives the animations of all the seek bars from a single frame callback, so animating many
+ * seek bars at once costs about the same as animating one. Used only from the UI thread.
+ */
+final class SeekbarAnimator {
+    private static final long FRAME_DELAY_MILLIS = 16;
+
+    interface Target {
+        /**
+         * Move the animation to the given frame time
+         * @return false when the animation finished
+         */
+        boolean onAnimationFrame(long frameTimeNanos);
+
+        /**
+         * Called once the finished animation was removed, so it can be started again from here
+         */
+        void onAnimationEnd();
+    }
+
+    private static SeekbarAnimator instance;
+
+    private final ArrayList<Target> targets = new ArrayList<>();
+    //Targets of the frame being run, targets started during it run from the next one
+    private final ArrayList<Target> frameTargets = new ArrayList<>();
+    private final FrameDriver driver;
+    private boolean scheduled;
+
+    static SeekbarAnimator getInstance() {
+        if(instance == null) {
+            instance = new SeekbarAnimator();
+        }
+        return instance;
+    }
+
+    private SeekbarAnimator() {
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            driver = new ChoreographerDriver(this);
+        } else {
+            driver = new HandlerDriver(this);
+        }
+    }
+
+    void start(Target target) {
+        if(!targets.contains(target)) {
+            targets.add(target);
+        }
+        if(!scheduled) {
+            scheduled = true;
+            driver.postFrame();
+        }
+    }
+
+    void cancel(Target target) {
+        targets.remove(target);
+    }
+
+    boolean isRunning(Target target) {
+        return targets.contains(target);
+    }
+
+    void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        frameTargets.clear();
+        for(int i = 0; i < targets.size(); i++) {
+            frameTargets.add(targets.get(i));
+        }
+
+        for(int i = 0; i < frameTargets.size(); i++) {
+            Target target = frameTargets.get(i);
+            //Skip the targets cancelled by the ones run before them
+            if(!targets.contains(target)) {
+                continue;
+            }
+            if(!target.onAnimationFrame(frameTimeNanos)) {
+                targets.remove(target);
+                target.onAnimationEnd();
+            }
+        }
+        frameTargets.clear();
+
+        if(!scheduled && !targets.isEmpty()) {
+            scheduled = true;
+            driver.postFrame();
+        }
+    }
+
+    /**
+     * Decelerate interpolation of a fraction between 0 and 1
+     */
+    static float interpolate(float fraction) {
+        return 1f - (1f - fraction) * (1f - fraction);
+    }
+
+    /**
+     * Value between from and to at the given interpolated fraction, without overflowing for
+     * distances wider than long
+     */
+    static long lerp(long from, long to, float fraction) {
+        if(fraction >= 1f) {
+            return to;
+        }
+        return from + (long) (((double) to - (double) from) * fraction);
+    }
+
+    private interface FrameDriver {
+        void postFrame();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerDriver implements FrameDriver, Choreographer.FrameCallback {
+        private final SeekbarAnimator animator;
+
+        ChoreographerDriver(SeekbarAnimator animator) {
+            this.animator = animator;
+        }
+
+        @Override
+        public void postFrame() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            animator.doFrame(frameTimeNanos);
+        }
+    }
+
+    private static class HandlerDriver implements FrameDriver, Runnable {
+        private final SeekbarAnimator animator;
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        HandlerDriver(SeekbarAnimator animator) {
+            this.animator = animator;
+        }
+
+        @Override
+        public void postFrame() {
+            handler.postDelayed(this, FRAME_DELAY_MILLIS);
+        }
+
+        @Override
+        public void run() {
+            animator.doFrame(System.nanoTime());
+        }
+    }
+}
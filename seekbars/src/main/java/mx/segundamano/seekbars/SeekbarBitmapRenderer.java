@@ -0,0 +1,148 @@
+package mx.segundamano.seekbars;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Draws seek bar snapshots into bitmaps without a live view, for places where a custom view
+ * cannot be used or is too expensive, like app widgets, notifications or long lists.
+ * Rendering can run on any thread; bitmaps come from a {@link BitmapPool} keyed by size.
+ */
+public class SeekbarBitmapRenderer {
+    private static final long DEFAULT_POOL_BYTES = 4 * 1024 * 1024;
+
+    //Listener for bitmaps rendered in background
+    public interface OnBitmapRenderedListener {
+        void onBitmapRendered(SeekbarSnapshot snapshot, Bitmap bitmap);
+    }
+
+    private final BitmapPool bitmapPool;
+    private final Executor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Canvas canvas = new Canvas();
+    private final ValueScale scale = new ValueScale();
+    private final RectF guide = new RectF();
+    private final RectF range = new RectF();
+    private final Paint paintGuide = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint paintRange = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint paintPointers = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final float pointerRadius;
+    private final float guideHalfHeight;
+
+    public SeekbarBitmapRenderer(Context context) {
+        this(context, new BitmapPool(DEFAULT_POOL_BYTES), Executors.newSingleThreadExecutor());
+    }
+
+    /**
+     * @param context Context used to obtain the screen density
+     * @param bitmapPool Pool the bitmaps are taken from
+     * @param executor Executor used by renderAsync
+     */
+    public SeekbarBitmapRenderer(Context context, BitmapPool bitmapPool, Executor executor) {
+        this.bitmapPool = bitmapPool;
+        this.executor = executor;
+
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        pointerRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 9, metrics);
+        guideHalfHeight = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 2, metrics);
+        paintPointers.setStyle(Paint.Style.FILL);
+    }
+
+    public BitmapPool getBitmapPool() {
+        return bitmapPool;
+    }
+
+    /**
+     * Draw a snapshot into a pooled bitmap. Can be called from any thread
+     * @param snapshot Values and colors to draw
+     * @param width Bitmap width in pixels
+     * @param height Bitmap height in pixels
+     * @return Bitmap with the seek bar drawn, give it back with {@link #release(Bitmap)} when not shown anymore
+     */
+    public Bitmap render(SeekbarSnapshot snapshot, int width, int height) {
+        Bitmap bitmap = bitmapPool.acquire(width, height);
+        synchronized (canvas) {
+            bitmap.eraseColor(Color.TRANSPARENT);
+            canvas.setBitmap(bitmap);
+            draw(snapshot, width, height);
+            canvas.setBitmap(null);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Draw a snapshot in background, the listener is called on the main thread
+     */
+    public void renderAsync(final SeekbarSnapshot snapshot, final int width, final int height,
+                            final OnBitmapRenderedListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = render(snapshot, width, height);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onBitmapRendered(snapshot, bitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Give back a bitmap obtained from render, so it can be reused
+     */
+    public void release(Bitmap bitmap) {
+        bitmapPool.release(bitmap);
+    }
+
+    /**
+     * Stop the background thread when the renderer was created with the default executor
+     */
+    public void shutdown() {
+        if(executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+        bitmapPool.clear();
+    }
+
+    private void draw(SeekbarSnapshot snapshot, int width, int height) {
+        float middleHeight = height / 2f;
+        float radius = Math.min(pointerRadius, middleHeight);
+        float halfHeight = Math.min(guideHalfHeight, radius / 2);
+        float drawMin = radius;
+        float drawMax = width - radius;
+
+        scale.setRange(snapshot.dataMin, snapshot.dataMax, 1);
+        scale.setDrawRange(drawMin, drawMax);
+        float drawMinValue = scale.positionOf(snapshot.minValue);
+        float drawMaxValue = scale.positionOf(snapshot.maxValue);
+
+        paintGuide.setColor(snapshot.guideColor);
+        paintRange.setColor(snapshot.rangeColor);
+        paintPointers.setColor(snapshot.pointerColor);
+
+        guide.set(drawMin, middleHeight - halfHeight, drawMax, middleHeight + halfHeight);
+        range.set(drawMinValue, middleHeight - halfHeight, drawMaxValue, middleHeight + halfHeight);
+        canvas.drawRect(guide, paintGuide);
+        canvas.drawRect(range, paintRange);
+        if(snapshot.doublePointer) {
+            canvas.drawCircle(drawMinValue, middleHeight, radius, paintPointers);
+        }
+        canvas.drawCircle(drawMaxValue, middleHeight, radius, paintPointers);
+    }
+}
@@ -0,0 +1,209 @@
+package mx.segundamano.seekbars;
+
+import android.content.Context;
+import android.os.Parcelable;
+import android.support.v4.view.ViewCompat;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Vertical container for the seek bars of a panel, like a filters panel.
+ * Changes made inside a transaction, or restored from a saved state, notify each seek bar
+ * listener once when the transaction ends instead of once per setter. The group listener
+ * receives a single event per frame with every seek bar that changed since the previous one.
+ * Only direct children belong to the group.
+ */
+public class SeekbarGroup extends LinearLayout {
+
+    //Listener for changes of any seek bar in the group
+    public interface OnGroupChangeListener {
+        /**
+         * @param group Group the seek bars belong to
+         * @param changed Seek bars that changed since the previous event, valid only during the call
+         */
+        void onGroupChange(SeekbarGroup group, List<View> changed);
+    }
+
+    private OnGroupChangeListener listener;
+    private OnHierarchyChangeListener hierarchyListener;
+
+    private int transactionDepth;
+    private final ArrayList<View> deferred = new ArrayList<>();
+    private final ArrayList<View> changed = new ArrayList<>();
+    private final ArrayList<View> dispatched = new ArrayList<>();
+    private final List<View> unmodifiableDispatched = Collections.unmodifiableList(dispatched);
+    private boolean dispatchScheduled;
+
+    private final Runnable dispatchGroupChange = new Runnable() {
+        @Override
+        public void run() {
+            dispatchGroupChange();
+        }
+    };
+
+    public SeekbarGroup(Context context) {
+        this(context, null);
+    }
+
+    public SeekbarGroup(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        setOrientation(VERTICAL);
+
+        super.setOnHierarchyChangeListener(new OnHierarchyChangeListener() {
+            @Override
+            public void onChildViewAdded(View parent, View child) {
+                setGroup(child, SeekbarGroup.this);
+                if(hierarchyListener != null) {
+                    hierarchyListener.onChildViewAdded(parent, child);
+                }
+            }
+
+            @Override
+            public void onChildViewRemoved(View parent, View child) {
+                setGroup(child, null);
+                deferred.remove(child);
+                changed.remove(child);
+                if(hierarchyListener != null) {
+                    hierarchyListener.onChildViewRemoved(parent, child);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void setOnHierarchyChangeListener(OnHierarchyChangeListener listener) {
+        hierarchyListener = listener;
+    }
+
+    public void setOnGroupChangeListener(OnGroupChangeListener l) {
+        listener = l;
+    }
+
+    public OnGroupChangeListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Start applying changes to several seek bars. Their listeners are notified once each when
+     * the last open transaction ends. Transactions can be nested
+     */
+    public void beginTransaction() {
+        transactionDepth++;
+    }
+
+    /**
+     * End a transaction started with beginTransaction
+     */
+    public void endTransaction() {
+        if(transactionDepth == 0) {
+            throw new IllegalStateException("There is no transaction to end");
+        }
+        if(--transactionDepth > 0) {
+            return;
+        }
+
+        for(int i = 0; i < deferred.size(); i++) {
+            View child = deferred.get(i);
+            if(child instanceof SeekBarView) {
+                ((SeekBarView) child).dispatchDeferredChange();
+            } else if(child instanceof DoubleSeekbarView) {
+                ((DoubleSeekbarView) child).dispatchDeferredChange();
+            }
+        }
+        deferred.clear();
+    }
+
+    public boolean isInTransaction() {
+        return transactionDepth > 0;
+    }
+
+    /**
+     * Apply changes to several seek bars in a single transaction
+     * @param changes Changes to apply
+     */
+    public void runTransaction(Runnable changes) {
+        beginTransaction();
+        try {
+            changes.run();
+        } finally {
+            endTransaction();
+        }
+    }
+
+    @Override
+    protected void dispatchRestoreInstanceState(SparseArray<Parcelable> container) {
+        beginTransaction();
+        try {
+            super.dispatchRestoreInstanceState(container);
+        } finally {
+            endTransaction();
+        }
+    }
+
+    /**
+     * Called by a seek bar before notifying its listeners
+     * @return true if the group is in a transaction and the seek bar should notify later
+     */
+    boolean deferChange(View child) {
+        if(transactionDepth == 0) {
+            return false;
+        }
+        if(!deferred.contains(child)) {
+            deferred.add(child);
+        }
+        return true;
+    }
+
+    /**
+     * Called by a seek bar after notifying its listeners, to be part of the next group event
+     */
+    void onChildChanged(View child) {
+        if(!changed.contains(child)) {
+            changed.add(child);
+        }
+        if(dispatchScheduled) {
+            return;
+        }
+
+        dispatchScheduled = true;
+        if(ViewCompat.isAttachedToWindow(this)) {
+            ViewCompat.postOnAnimation(this, dispatchGroupChange);
+        } else {
+            PendingUpdate.MAIN_HANDLER.post(dispatchGroupChange);
+        }
+    }
+
+    private void dispatchGroupChange() {
+        dispatchScheduled = false;
+        if(changed.isEmpty()) {
+            return;
+        }
+
+        //Changes made by the listener go to the next event
+        for(int i = 0; i < changed.size(); i++) {
+            dispatched.add(changed.get(i));
+        }
+        changed.clear();
+        try {
+            if(listener != null) {
+                listener.onGroupChange(this, unmodifiableDispatched);
+            }
+        } finally {
+            dispatched.clear();
+        }
+    }
+
+    private static void setGroup(View child, SeekbarGroup group) {
+        if(child instanceof SeekBarView) {
+            ((SeekBarView) child).setGroup(group);
+        } else if(child instanceof DoubleSeekbarView) {
+            ((DoubleSeekbarView) child).setGroup(group);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package mx.segundamano.seekbars;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.view.View;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Saved state shared by both seek bars.
+ * Fields are encoded as a single byte array: a version, a mask of the fields present and the
+ * fields as varints, each one delta encoded against the previous one when they are related.
+ * Fields are written in mask order and new ones are only appended, so states written by a
+ * newer version can be read by an older one, which ignores the fields it does not know.
+ */
+class SeekbarSavedState extends View.BaseSavedState {
+    static final int VERSION = 1;
+
+    static final int FIELD_RANGE = 1;
+    static final int FIELD_STEPS = 1 << 1;
+    static final int FIELD_MIN_VALUE = 1 << 2;
+    static final int FIELD_MAX_VALUE = 1 << 3;
+    static final int FIELD_DECIMAL_PLACES = 1 << 4;
+
+    int fields;
+    long dataMin;
+    long dataMax;
+    long steps = 1;
+    long minValue;
+    long maxValue;
+    int decimalPlaces;
+
+    SeekbarSavedState(Parcelable superState) {
+        super(superState);
+    }
+
+    private SeekbarSavedState(Parcel in) {
+        super(in);
+        try {
+            decode(in.createByteArray());
+        } catch (IOException e) {
+            fields = 0;
+        }
+    }
+
+    boolean has(int field) {
+        return (fields & field) != 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+        super.writeToParcel(out, flags);
+        try {
+            out.writeByteArray(encode());
+        } catch (IOException e) {
+            out.writeByteArray(new byte[0]);
+        }
+    }
+
+    byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(VERSION);
+        VarInt.writeUnsigned(out, fields);
+        if(has(FIELD_RANGE)) {
+            VarInt.writeSigned(out, dataMin);
+            VarInt.writeUnsigned(out, dataMax - dataMin);
+        }
+        if(has(FIELD_STEPS)) {
+            VarInt.writeUnsigned(out, steps);
+        }
+        if(has(FIELD_MIN_VALUE)) {
+            VarInt.writeUnsigned(out, minValue - dataMin);
+        }
+        if(has(FIELD_MAX_VALUE)) {
+            VarInt.writeUnsigned(out, maxValue - (has(FIELD_MIN_VALUE) ? minValue : dataMin));
+        }
+        if(has(FIELD_DECIMAL_PLACES)) {
+            VarInt.writeUnsigned(out, decimalPlaces);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    void decode(byte[] encoded) throws IOException {
+        fields = 0;
+        if(encoded == null || encoded.length == 0) {
+            return;
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        in.readUnsignedByte();
+        int encodedFields = (int) VarInt.readUnsigned(in);
+        if((encodedFields & FIELD_RANGE) != 0) {
+            dataMin = VarInt.readSigned(in);
+            dataMax = dataMin + VarInt.readUnsigned(in);
+        }
+        if((encodedFields & FIELD_STEPS) != 0) {
+            steps = VarInt.readUnsigned(in);
+        }
+        if((encodedFields & FIELD_MIN_VALUE) != 0) {
+            minValue = dataMin + VarInt.readUnsigned(in);
+        }
+        if((encodedFields & FIELD_MAX_VALUE) != 0) {
+            maxValue = ((encodedFields & FIELD_MIN_VALUE) != 0 ? minValue : dataMin) + VarInt.readUnsigned(in);
+        }
+        if((encodedFields & FIELD_DECIMAL_PLACES) != 0) {
+            decimalPlaces = (int) VarInt.readUnsigned(in);
+        }
+        fields = encodedFields;
+    }
+
+    public static final Creator<SeekbarSavedState> CREATOR = new Creator<SeekbarSavedState>() {
+        public SeekbarSavedState createFromParcel(Parcel in) {
+            return new SeekbarSavedState(in);
+        }
+
+        public SeekbarSavedState[] newArray(int size) {
+            return new SeekbarSavedState[size];
+        }
+    };
+}
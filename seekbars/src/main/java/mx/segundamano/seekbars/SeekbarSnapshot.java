@@ -0,0 +1,64 @@
+package mx.segundamano.seekbars;
+
+/**
+ * Immutable copy of what a seek bar shows: range, selected values and colors.
+ * It can be taken on the UI thread and drawn later on any thread by {@link SeekbarBitmapRenderer}.
+ */
+public final class SeekbarSnapshot {
+    final long dataMin;
+    final long dataMax;
+    final long minValue;
+    final long maxValue;
+    final boolean doublePointer;
+    final int guideColor;
+    final int rangeColor;
+    final int pointerColor;
+
+    /**
+     * @param dataMin Min value of the range
+     * @param dataMax Max value of the range
+     * @param minValue Selected min value, or dataMin for a single pointer
+     * @param maxValue Selected max value, or the selected value for a single pointer
+     * @param doublePointer true to draw a pointer on both values, false to draw only the max one
+     * @param guideColor Guide bar color value
+     * @param rangeColor Range bar color value
+     * @param pointerColor Pointers color value
+     */
+    public SeekbarSnapshot(long dataMin, long dataMax, long minValue, long maxValue, boolean doublePointer,
+                           int guideColor, int rangeColor, int pointerColor) {
+        if(dataMin >= dataMax) {
+            throw new IllegalArgumentException("Min value should be less than max value");
+        } else if(minValue > maxValue) {
+            throw new IllegalArgumentException("Min value should not be greater than max value");
+        }
+
+        this.dataMin = dataMin;
+        this.dataMax = dataMax;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.doublePointer = doublePointer;
+        this.guideColor = guideColor;
+        this.rangeColor = rangeColor;
+        this.pointerColor = pointerColor;
+    }
+
+    public long getDataMin() {
+        return dataMin;
+    }
+
+    public long getDataMax() {
+        return dataMax;
+    }
+
+    public long getMinValue() {
+        return minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public boolean isDoublePointer() {
+        return doublePointer;
+    }
+}
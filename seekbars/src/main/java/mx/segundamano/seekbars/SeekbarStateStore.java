@@ -0,0 +1,310 @@
+package mx.segundamano.seekbars;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.support.v4.util.AtomicFile;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the state of seek bars across process death, keyed by an id given to each seek bar.
+ * The whole store is read in one pass on a background thread, and changes are written behind:
+ * they are kept in memory and written together to a compact binary file after a short delay,
+ * so dragging a pointer never writes to disk per event. Each store writes from its own thread,
+ * {@link #close()} a store when it is no longer used; the default store is never closed.
+ */
+public class SeekbarStateStore {
+    private static final String TAG = SeekbarStateStore.class.getSimpleName();
+
+    private static final String DEFAULT_FILE_NAME = "seekbars.state";
+    private static final int MAGIC = 0x53425354;
+    private static final int VERSION = 1;
+    private static final long WRITE_DELAY_MILLIS = 1000;
+
+    private static SeekbarStateStore defaultStore;
+
+    interface Callback {
+        void onStateLoaded(long[] values);
+    }
+
+    private final AtomicFile file;
+    private final Handler ioHandler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    //Guarded by this
+    private final Map<String, long[]> states = new HashMap<>();
+    private final Map<String, List<Callback>> pendingCallbacks = new HashMap<>();
+    private boolean loaded;
+    private boolean loading;
+    private boolean writeScheduled;
+    private boolean closed;
+
+    private final Runnable writeRunnable = new Runnable() {
+        @Override
+        public void run() {
+            write();
+        }
+    };
+
+    /**
+     * Get the store shared by the app, kept in its files dir
+     */
+    public static synchronized SeekbarStateStore getDefault(Context context) {
+        if(defaultStore == null) {
+            defaultStore = new SeekbarStateStore(new File(context.getApplicationContext().getFilesDir(), DEFAULT_FILE_NAME));
+            defaultStore.load();
+        }
+        return defaultStore;
+    }
+
+    public SeekbarStateStore(File file) {
+        this.file = new AtomicFile(file);
+
+        HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        ioHandler = new Handler(thread.getLooper());
+    }
+
+    /**
+     * Read the file in background. Seek bars asking for their state before it finishes are
+     * restored on the main thread once it is read
+     */
+    public synchronized void load() {
+        checkOpen();
+        if(loaded || loading) {
+            return;
+        }
+
+        loading = true;
+        ioHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                read();
+            }
+        });
+    }
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Keep the state of a seek bar, it is written to disk later together with other changes.
+     * Ignored once the store is closed
+     */
+    synchronized void put(String key, long[] values) {
+        if(closed) {
+            return;
+        }
+        load();
+        states.put(key, values);
+        if(!writeScheduled) {
+            writeScheduled = true;
+            ioHandler.postDelayed(writeRunnable, WRITE_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Obtain the state of a seek bar. The callback is called right away when the store is
+     * loaded, otherwise on the main thread once it is; it is not called if there is no state or
+     * the store is closed
+     */
+    void get(String key, Callback callback) {
+        long[] values;
+        synchronized (this) {
+            if(closed) {
+                return;
+            } else if(!loaded) {
+                List<Callback> callbacks = pendingCallbacks.get(key);
+                if(callbacks == null) {
+                    callbacks = new ArrayList<>();
+                    pendingCallbacks.put(key, callbacks);
+                }
+                callbacks.add(callback);
+                load();
+                return;
+            }
+            values = states.get(key);
+            values = values != null ? values.clone() : null;
+        }
+
+        //Called without holding the store, the callback may put a new state right away
+        if(values != null) {
+            callback.onStateLoaded(values);
+        }
+    }
+
+    /**
+     * Forget the state of a seek bar
+     */
+    public synchronized void remove(String key) {
+        checkOpen();
+        if(states.remove(key) != null && !writeScheduled) {
+            writeScheduled = true;
+            ioHandler.postDelayed(writeRunnable, WRITE_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Write pending changes now, in background
+     */
+    public synchronized void flush() {
+        checkOpen();
+        ioHandler.removeCallbacks(writeRunnable);
+        writeScheduled = true;
+        ioHandler.post(writeRunnable);
+    }
+
+    /**
+     * Write pending changes and stop the thread of this store. Seek bars still using it stop
+     * saving and restoring their state, the other methods throw afterwards
+     */
+    public synchronized void close() {
+        if(closed) {
+            return;
+        }
+
+        closed = true;
+        if(writeScheduled) {
+            ioHandler.removeCallbacks(writeRunnable);
+            ioHandler.post(writeRunnable);
+        }
+        //Posted after the write so it runs first, like quitSafely does from API 18
+        ioHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Looper.myLooper().quit();
+            }
+        });
+    }
+
+    Looper getIoLooper() {
+        return ioHandler.getLooper();
+    }
+
+    private void checkOpen() {
+        if(closed) {
+            throw new IllegalStateException("State store is closed");
+        }
+    }
+
+    private void read() {
+        Map<String, long[]> read = new HashMap<>();
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(file.readFully()));
+            if(in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException("Unknown state file format");
+            }
+
+            int count = (int) VarInt.readUnsigned(in);
+            for(int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                long[] values = new long[(int) VarInt.readUnsigned(in)];
+                long previous = 0;
+                for(int j = 0; j < values.length; j++) {
+                    values[j] = previous + VarInt.readSigned(in);
+                    previous = values[j];
+                }
+                read.put(key, values);
+            }
+        } catch (FileNotFoundException e) {
+            //Nothing saved yet
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read seek bars state", e);
+            read.clear();
+        }
+
+        final Map<String, List<Callback>> callbacks;
+        synchronized (this) {
+            for(Map.Entry<String, long[]> entry : read.entrySet()) {
+                if(!states.containsKey(entry.getKey())) {
+                    states.put(entry.getKey(), entry.getValue());
+                }
+            }
+            loaded = true;
+            loading = false;
+            callbacks = new HashMap<>(pendingCallbacks);
+            pendingCallbacks.clear();
+        }
+
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                for(Map.Entry<String, List<Callback>> entry : callbacks.entrySet()) {
+                    long[] values;
+                    synchronized (SeekbarStateStore.this) {
+                        values = states.get(entry.getKey());
+                        values = values != null ? values.clone() : null;
+                    }
+                    if(values == null) {
+                        continue;
+                    }
+                    for(Callback callback : entry.getValue()) {
+                        callback.onStateLoaded(values);
+                    }
+                }
+            }
+        });
+    }
+
+    private void write() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            synchronized (this) {
+                writeScheduled = false;
+                if(!loaded) {
+                    //Do not overwrite a file that was not read yet, retry after loading
+                    writeScheduled = true;
+                    ioHandler.postDelayed(writeRunnable, WRITE_DELAY_MILLIS);
+                    return;
+                }
+
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                VarInt.writeUnsigned(out, states.size());
+                for(Map.Entry<String, long[]> entry : states.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    long[] values = entry.getValue();
+                    VarInt.writeUnsigned(out, values.length);
+                    long previous = 0;
+                    for(long value : values) {
+                        VarInt.writeSigned(out, value - previous);
+                        previous = value;
+                    }
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to encode seek bars state", e);
+            return;
+        }
+
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            bytes.writeTo(stream);
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write seek bars state", e);
+            if(stream != null) {
+                file.failWrite(stream);
+            }
+        }
+    }
+}
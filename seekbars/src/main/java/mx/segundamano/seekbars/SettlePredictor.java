@@ -0,0 +1,58 @@
+package mx.segundamano.seekbars;
+
+/**
+ * Tells when a dragged pointer is about to settle: its velocity was above a threshold and
+ * just decayed below it, while the finger is still down. It only keeps a flag, the velocity
+ * comes from the allocation free {@link VelocityEstimator} of the view.
+ */
+final class SettlePredictor {
+    //Time the remaining velocity is projected ahead to predict where the pointer stops
+    private static final long SETTLE_MILLIS = 100;
+
+    //Velocity in pixels per millisecond
+    private float threshold;
+    private boolean moving;
+
+    /**
+     * @param pixelsPerSecond Speed below which the pointer is considered to be settling
+     */
+    void setThreshold(float pixelsPerSecond) {
+        if(pixelsPerSecond <= 0) {
+            throw new IllegalArgumentException("Settle velocity threshold should be greater than zero");
+        }
+        threshold = pixelsPerSecond / 1000f;
+    }
+
+    float getThreshold() {
+        return threshold * 1000f;
+    }
+
+    void reset() {
+        moving = false;
+    }
+
+    /**
+     * Check the velocity after a move
+     * @return true once each time the velocity decays below the threshold
+     */
+    boolean onMove(VelocityEstimator estimator) {
+        if(Math.abs(estimator.getVelocity()) >= threshold) {
+            moving = true;
+            return false;
+        }
+        if(moving) {
+            moving = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Position the pointer is expected to stop at, projecting the velocity left
+     * @param x Actual touch position
+     * @param maxDistance Farthest the prediction can move from the actual position
+     */
+    float settlePosition(VelocityEstimator estimator, float x, float maxDistance) {
+        return estimator.predict(x, SETTLE_MILLIS, maxDistance);
+    }
+}
@@ -0,0 +1,23 @@
+package mx.segundamano.seekbars;
+
+/**
+ * Distribution of the values a seek bar filters, like the prices of the listings, used to
+ * preview how many of them a range selects and to place values by quantile.
+ */
+public interface ValueDistribution {
+    /**
+     * Count of values added
+     */
+    long getTotalCount();
+
+    /**
+     * Count of values between from and to, both included
+     */
+    long count(long from, long to);
+
+    /**
+     * Value below which the given fraction of the values fall
+     * @param fraction Between 0 and 1
+     */
+    long quantile(double fraction);
+}
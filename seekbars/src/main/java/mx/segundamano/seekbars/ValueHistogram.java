@@ -0,0 +1,127 @@
+package mx.segundamano.seekbars;
+
+import java.nio.IntBuffer;
+
+/**
+ * Exact distribution of values counted in bins of a fixed width, like the steps of a seek bar.
+ * Counts are answered from prefix sums, so a count or a quantile costs a lookup or a binary
+ * search whatever the count of values. Memory depends only on the count of bins.
+ * Fill it from one thread, like the one loading a column, then query it from any thread.
+ */
+public class ValueHistogram implements ValueDistribution, IntColumnLoader.Consumer {
+    static final int MAX_BINS = 1 << 20;
+
+    private final long min;
+    private final long max;
+    private final long binWidth;
+    private final long[] bins;
+
+    //Count of values up to each bin, built on the first query after adding values
+    private volatile long[] prefixSums;
+
+    /**
+     * @param min Lower bound of the first bin, values below it count in the first bin
+     * @param max Upper bound of the last bin, values above it count in the last bin
+     * @param binWidth Width of each bin, like the steps of the seek bar
+     */
+    public ValueHistogram(long min, long max, long binWidth) {
+        if(max < min) {
+            throw new IllegalArgumentException("Max should not be minor than min");
+        }
+        if(binWidth <= 0) {
+            throw new IllegalArgumentException("Bin width should be greater than zero");
+        }
+        long binCount = ValueScale.divideUnsigned(max - min, binWidth) + 1;
+        if(binCount <= 0 || binCount > MAX_BINS) {
+            throw new IllegalArgumentException("Too many bins, use a wider bin width");
+        }
+
+        this.min = min;
+        this.max = max;
+        this.binWidth = binWidth;
+        bins = new long[(int) binCount];
+    }
+
+    public void add(long value) {
+        bins[binOf(value)]++;
+        prefixSums = null;
+    }
+
+    public void add(IntBuffer values) {
+        while(values.hasRemaining()) {
+            bins[binOf(values.get())]++;
+        }
+        prefixSums = null;
+    }
+
+    @Override
+    public void onChunk(IntBuffer chunk) {
+        add(chunk);
+    }
+
+    @Override
+    public long getTotalCount() {
+        long[] sums = prefixSums();
+        return sums[sums.length - 1];
+    }
+
+    /**
+     * Count of values in the bins of from and to and the ones between them
+     */
+    @Override
+    public long count(long from, long to) {
+        if(to < from) {
+            return 0;
+        }
+
+        long[] sums = prefixSums();
+        int first = binOf(from);
+        return sums[binOf(to)] - (first == 0 ? 0 : sums[first - 1]);
+    }
+
+    /**
+     * Lower bound of the first bin reaching the fraction of the values
+     */
+    @Override
+    public long quantile(double fraction) {
+        long[] sums = prefixSums();
+        long total = sums[sums.length - 1];
+        long rank = (long) Math.ceil(Math.max(0, Math.min(1, fraction)) * total);
+
+        int low = 0;
+        int high = sums.length - 1;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(sums[middle] < rank) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return min + low * binWidth;
+    }
+
+    private int binOf(long value) {
+        if(value <= min) {
+            return 0;
+        }
+        if(value >= max) {
+            return bins.length - 1;
+        }
+        return (int) ValueScale.divideUnsigned(value - min, binWidth);
+    }
+
+    private long[] prefixSums() {
+        long[] sums = prefixSums;
+        if(sums == null) {
+            sums = new long[bins.length];
+            long sum = 0;
+            for(int i = 0; i < bins.length; i++) {
+                sum += bins[i];
+                sums[i] = sum;
+            }
+            prefixSums = sums;
+        }
+        return sums;
+    }
+}
@@ -0,0 +1,208 @@
+package mx.segundamano.seekbars;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+
+/**
+ * Value bubble drawn above a pointer.
+ * Values are formatted into a reused char buffer and measured with cached glyph widths, so
+ * updating the bubble while dragging does not allocate nor measure text on each frame.
+ */
+class ValueLabel {
+    private static final char DEFAULT_GROUPING_SEPARATOR = ',';
+    private static final char DEFAULT_DECIMAL_SEPARATOR = '.';
+    private static final int MAX_DIGITS_WITH_SEPARATORS = 28;
+
+    private final Paint paintText = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint paintBubble = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF bubble = new RectF();
+
+    private final float paddingHorizontal;
+    private final float paddingVertical;
+    private final float cornerRadius;
+
+    private char[] prefix = new char[0];
+    private char groupingSeparator = DEFAULT_GROUPING_SEPARATOR;
+    private char decimalSeparator = DEFAULT_DECIMAL_SEPARATOR;
+    private int decimalPlaces;
+    private char[] buffer = new char[MAX_DIGITS_WITH_SEPARATORS];
+    private int start;
+
+    //Glyph widths cached for the paint text size and typeface they were measured with
+    private final float[] digitWidths = new float[10];
+    private float separatorWidth;
+    private float decimalSeparatorWidth;
+    private float minusWidth;
+    private float prefixWidth;
+    private float metricsTextSize = -1;
+    private Typeface metricsTypeface;
+
+    ValueLabel(DisplayMetrics metrics) {
+        paddingHorizontal = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 6, metrics);
+        paddingVertical = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 3, metrics);
+        cornerRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 4, metrics);
+
+        paintText.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 12, metrics));
+        paintText.setTextAlign(Paint.Align.CENTER);
+        paintBubble.setStyle(Paint.Style.FILL);
+    }
+
+    void setPrefix(String prefix) {
+        this.prefix = prefix == null ? new char[0] : prefix.toCharArray();
+        buffer = new char[this.prefix.length + MAX_DIGITS_WITH_SEPARATORS];
+        metricsTextSize = -1;
+    }
+
+    String getPrefix() {
+        return new String(prefix);
+    }
+
+    void setGroupingSeparator(char groupingSeparator) {
+        this.groupingSeparator = groupingSeparator;
+        metricsTextSize = -1;
+    }
+
+    char getGroupingSeparator() {
+        return groupingSeparator;
+    }
+
+    void setDecimalSeparator(char decimalSeparator) {
+        this.decimalSeparator = decimalSeparator;
+        metricsTextSize = -1;
+    }
+
+    char getDecimalSeparator() {
+        return decimalSeparator;
+    }
+
+    /**
+     * Format values as fixed-point decimals with the given count of decimal places
+     */
+    void setDecimalPlaces(int decimalPlaces) {
+        this.decimalPlaces = decimalPlaces;
+    }
+
+    void setBubbleColor(int color) {
+        paintBubble.setColor(color);
+    }
+
+    int getBubbleColor() {
+        return paintBubble.getColor();
+    }
+
+    void setTextColor(int color) {
+        paintText.setColor(color);
+    }
+
+    int getTextColor() {
+        return paintText.getColor();
+    }
+
+    void setAlpha(int alpha) {
+        paintText.setAlpha(alpha);
+        paintBubble.setAlpha(alpha);
+    }
+
+    /**
+     * Height that the bubble takes, used to reserve space above the pointers
+     * @return Bubble height in pixels
+     */
+    float getHeight() {
+        return paintText.descent() - paintText.ascent() + 2 * paddingVertical;
+    }
+
+    /**
+     * Draw the bubble centered on x, with its bottom edge at bottom
+     */
+    void draw(Canvas canvas, long value, float x, float bottom) {
+        int length = format(value);
+        float width = measure(length) + 2 * paddingHorizontal;
+
+        bubble.set(x - width / 2, bottom - getHeight(), x + width / 2, bottom);
+        canvas.drawRoundRect(bubble, cornerRadius, cornerRadius, paintBubble);
+        canvas.drawText(buffer, start, length, x, bottom - paddingVertical - paintText.descent(), paintText);
+    }
+
+    /**
+     * Write prefix, sign, digits, grouping and decimal separators at the end of the buffer
+     * @return Count of chars written, starting at start
+     */
+    int format(long value) {
+        int pos = buffer.length;
+        boolean negative = value < 0;
+        int digits = 0;
+        do {
+            int digit = (int) (value % 10);
+            if (decimalPlaces > 0 && digits == decimalPlaces) {
+                buffer[--pos] = decimalSeparator;
+            } else if (digits > decimalPlaces && (digits - decimalPlaces) % 3 == 0) {
+                buffer[--pos] = groupingSeparator;
+            }
+            buffer[--pos] = (char) ('0' + (negative ? -digit : digit));
+            value /= 10;
+            digits++;
+        } while (value != 0 || digits <= decimalPlaces);
+
+        if (negative) {
+            buffer[--pos] = '-';
+        }
+        pos -= prefix.length;
+        System.arraycopy(prefix, 0, buffer, pos, prefix.length);
+
+        start = pos;
+        return buffer.length - pos;
+    }
+
+    char[] getBuffer() {
+        return buffer;
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    private float measure(int length) {
+        ensureMetrics();
+
+        float width = prefixWidth;
+        for (int i = start + prefix.length; i < start + length; i++) {
+            char c = buffer[i];
+            if (c >= '0' && c <= '9') {
+                width += digitWidths[c - '0'];
+            } else if (c == groupingSeparator) {
+                width += separatorWidth;
+            } else if (c == decimalSeparator) {
+                width += decimalSeparatorWidth;
+            } else {
+                width += minusWidth;
+            }
+        }
+        return width;
+    }
+
+    private void ensureMetrics() {
+        if (metricsTextSize == paintText.getTextSize() && metricsTypeface == paintText.getTypeface()) {
+            return;
+        }
+
+        char[] glyph = new char[1];
+        for (int i = 0; i < digitWidths.length; i++) {
+            glyph[0] = (char) ('0' + i);
+            digitWidths[i] = paintText.measureText(glyph, 0, 1);
+        }
+        glyph[0] = groupingSeparator;
+        separatorWidth = paintText.measureText(glyph, 0, 1);
+        glyph[0] = decimalSeparator;
+        decimalSeparatorWidth = paintText.measureText(glyph, 0, 1);
+        glyph[0] = '-';
+        minusWidth = paintText.measureText(glyph, 0, 1);
+        prefixWidth = paintText.measureText(prefix, 0, prefix.length);
+
+        metricsTextSize = paintText.getTextSize();
+        metricsTypeface = paintText.getTypeface();
+    }
+}
@@ -0,0 +1,403 @@
+package mx.segundamano.seekbars;
+
+/**
+ * Maps data values to pointer positions and back.
+ * Snapping is computed arithmetically instead of building one step per value, so it is exact
+ * for any range and step size representable as long. Range widths are treated as unsigned,
+ * which allows ranges as wide as Long.MIN_VALUE to Long.MAX_VALUE.
+ * The draw range can show only a window of the data range, the viewport. Hit testing, snapping
+ * and step positions only look at the values inside it, so zooming never walks the whole range.
+ * With a distribution of the data the range is placed by quantile, dense regions get more of the
+ * draw range; a zoomed viewport is always linear.
+ */
+class ValueScale {
+    private static final double TWO_POW_63 = 9.223372036854775808E18;
+
+    private long dataMin;
+    private long dataMax;
+    private long steps = 1;
+    private long stepCount;
+
+    private float drawMin;
+    private float drawMax;
+
+    //Visible window of the data range
+    private long viewMin;
+    private long viewMax;
+    private boolean zoomed;
+
+    //Limit touch snapping to the pixels of the draw range
+    private boolean adaptiveResolution;
+
+    //Distribution placing the values by quantile instead of linearly
+    private ValueDistribution quantiles;
+
+    void setRange(long dataMin, long dataMax, long steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("Steps should be greater than zero");
+        }
+
+        this.dataMin = dataMin;
+        this.dataMax = dataMax;
+        this.steps = steps;
+        stepCount = divideUnsigned(dataMax - dataMin, steps);
+        clampViewport();
+    }
+
+    void setDrawRange(float drawMin, float drawMax) {
+        this.drawMin = drawMin;
+        this.drawMax = drawMax;
+    }
+
+    /**
+     * Snap touches only to as many values as there are pixels in the draw range. Values between
+     * them are still reachable by snapping data values, like fine adjustments do
+     */
+    void setAdaptiveResolution(boolean adaptiveResolution) {
+        this.adaptiveResolution = adaptiveResolution;
+    }
+
+    /**
+     * Count of steps between two values reachable by touch, 1 unless the resolution is adaptive
+     * and there are more visible steps than pixels
+     */
+    long getTouchStride() {
+        float pixels = drawMax - drawMin;
+        if(!adaptiveResolution || pixels < 2) {
+            return 1;
+        }
+
+        double visibleSteps = toDouble(viewMax - viewMin) / toDouble(steps);
+        return visibleSteps <= pixels ? 1 : fromDouble(Math.ceil(visibleSteps / pixels));
+    }
+
+    /**
+     * Place the values by quantile of a distribution, or linearly if it is null
+     */
+    void setQuantiles(ValueDistribution quantiles) {
+        this.quantiles = quantiles;
+    }
+
+    private boolean isQuantile() {
+        return quantiles != null && !zoomed && quantiles.getTotalCount() > 0;
+    }
+
+    float getDrawMin() {
+        return drawMin;
+    }
+
+    float getDrawMax() {
+        return drawMax;
+    }
+
+    /**
+     * Show only a window of the data range. It is kept across range changes, clamped to the new range
+     * @param viewMin First visible value
+     * @param viewMax Last visible value
+     */
+    void setViewport(long viewMin, long viewMax) {
+        this.viewMin = viewMin;
+        this.viewMax = viewMax;
+        zoomed = true;
+        clampViewport();
+    }
+
+    void resetViewport() {
+        zoomed = false;
+        clampViewport();
+    }
+
+    boolean isZoomed() {
+        return zoomed;
+    }
+
+    long getViewMin() {
+        return viewMin;
+    }
+
+    long getViewMax() {
+        return viewMax;
+    }
+
+    boolean isVisible(long value) {
+        return value >= viewMin && value <= viewMax;
+    }
+
+    private void clampViewport() {
+        if(zoomed) {
+            viewMin = Math.max(viewMin, dataMin);
+            viewMax = Math.min(viewMax, dataMax);
+            zoomed = viewMin < viewMax && (viewMin != dataMin || viewMax != dataMax);
+        }
+        if(!zoomed) {
+            viewMin = dataMin;
+            viewMax = dataMax;
+        }
+    }
+
+    /**
+     * Scale the viewport around a focus point and move it with the focus, as a pinch does
+     * @param focusX Actual position of the focus in pixels
+     * @param previousFocusX Position of the focus on the previous call
+     * @param scaleFactor Zoom factor since the previous call, greater than 1 zooms in
+     * @param minSpan Narrowest window allowed, as unsigned long
+     * @return true if the viewport changed
+     */
+    boolean zoom(float focusX, float previousFocusX, float scaleFactor, long minSpan) {
+        float drawRange = drawMax - drawMin;
+        if(drawRange <= 0 || scaleFactor <= 0) {
+            return false;
+        }
+
+        long total = dataMax - dataMin;
+        double span = toDouble(viewMax - viewMin);
+        double previousFraction = Math.max(0, Math.min(1, (previousFocusX - drawMin) / drawRange));
+        double fraction = Math.max(0, Math.min(1, (focusX - drawMin) / drawRange));
+        double anchor = toDouble(viewMin - dataMin) + previousFraction * span;
+        double newSpan = Math.max(toDouble(minSpan), span / scaleFactor);
+
+        long oldMin = viewMin;
+        long oldMax = viewMax;
+        long spanOffset = fromDouble(Math.min(newSpan, toDouble(total)));
+        if(compareUnsigned(spanOffset, total) >= 0) {
+            resetViewport();
+        } else {
+            long startOffset = fromDouble(Math.max(0, anchor - fraction * newSpan));
+            if(compareUnsigned(startOffset, total - spanOffset) > 0) {
+                startOffset = total - spanOffset;
+            }
+            setViewport(dataMin + startOffset, dataMin + startOffset + spanOffset);
+        }
+        return viewMin != oldMin || viewMax != oldMax;
+    }
+
+    /**
+     * Positions of the steps inside the viewport, when they are far enough apart to be told apart
+     * @param out Array to fill with the positions in pixels, its length limits the count of positions
+     * @param minSpacing Min distance in pixels between two steps
+     * @return Count of positions written, 0 if the steps are closer than minSpacing
+     */
+    int stepPositions(float[] out, float minSpacing) {
+        double spacing = (drawMax - drawMin) * toDouble(steps) / toDouble(viewMax - viewMin);
+        if(spacing < minSpacing) {
+            return 0;
+        }
+
+        long index = divideUnsigned(viewMin - dataMin, steps);
+        if(valueAtStep(index) < viewMin) {
+            index++;
+        }
+
+        int count = 0;
+        while(count < out.length && compareUnsigned(index, stepCount) <= 0) {
+            long value = valueAtStep(index);
+            if(value > viewMax) {
+                break;
+            }
+            out[count++] = positionOf(value);
+            index++;
+        }
+        return count;
+    }
+
+    /**
+     * Count of steps between the min value and the last reachable value, as unsigned long
+     */
+    long getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Nearest value on the step grid to a pointer position
+     * @param drawValue Pointer position in pixels
+     * @return Data value snapped to the step grid
+     */
+    long valueAt(float drawValue) {
+        float drawRange = drawMax - drawMin;
+        if(drawRange <= 0) {
+            return dataMin;
+        }
+
+        double fraction = (drawValue - drawMin) / drawRange;
+        long stride = getTouchStride();
+        if(zoomed || stride > 1 || isQuantile()) {
+            long grid = steps * stride;
+            long value = snapToGrid(rawValueAt(drawValue), grid);
+            //Keep the value inside the window when a snap point fits there
+            if(value < viewMin && compareUnsigned(grid, viewMax - value) <= 0) {
+                value += grid;
+            } else if(value > viewMax && compareUnsigned(grid, value - viewMin) <= 0) {
+                value -= grid;
+            }
+            return value;
+        }
+        if(fraction <= 0) {
+            return dataMin;
+        } else if(fraction >= 1) {
+            return valueAtStep(stepCount);
+        }
+        long index = fromDouble(Math.floor(fraction * toDouble(stepCount) + 0.5));
+        if(compareUnsigned(index, stepCount) > 0) {
+            index = stepCount;
+        }
+        return valueAtStep(index);
+    }
+
+    /**
+     * Value at a pointer position without snapping it to the step grid
+     * @param drawValue Pointer position in pixels
+     * @return Data value inside the viewport
+     */
+    long rawValueAt(float drawValue) {
+        float drawRange = drawMax - drawMin;
+        if(drawRange <= 0) {
+            return viewMin;
+        }
+
+        double fraction = Math.max(0, Math.min(1, (drawValue - drawMin) / drawRange));
+        if(isQuantile()) {
+            //The distribution can be wider than the range, take the fraction of the values inside it
+            long total = quantiles.getTotalCount();
+            long below = total - quantiles.count(dataMin, Long.MAX_VALUE);
+            double rank = (below + fraction * quantiles.count(dataMin, dataMax)) / total;
+            return Math.max(viewMin, Math.min(viewMax, quantiles.quantile(rank)));
+        }
+        return viewMin + fromDouble(Math.floor(fraction * toDouble(viewMax - viewMin) + 0.5));
+    }
+
+    /**
+     * Nearest value on the step grid to a data value
+     * @param value Data value, may be outside of the range
+     * @return Data value snapped to the step grid and clamped to the range
+     */
+    long snap(long value) {
+        return snapToGrid(value, steps);
+    }
+
+    /**
+     * Nearest value to a data value among the multiples of a grid counted from the min value,
+     * and the last step
+     * @param grid Distance between two values of the grid as unsigned long, a multiple of the steps
+     */
+    private long snapToGrid(long value, long grid) {
+        long lastStep = valueAtStep(stepCount);
+        if(value <= dataMin) {
+            return dataMin;
+        } else if(value >= lastStep) {
+            return lastStep;
+        }
+
+        long below = dataMin + divideUnsigned(value - dataMin, grid) * grid;
+        long above = compareUnsigned(lastStep - below, grid) <= 0 ? lastStep : below + grid;
+        return compareUnsigned(value - below, above - value) >= 0 ? above : below;
+    }
+
+    /**
+     * Pointer position of a data value
+     * @param value Data value, clamped to the viewport
+     * @return Position in pixels
+     */
+    float positionOf(long value) {
+        if(value <= viewMin) {
+            return drawMin;
+        } else if(value >= viewMax) {
+            return drawMax;
+        }
+
+        double fraction;
+        if(isQuantile()) {
+            //Share of the values in the range that are below the value
+            fraction = (double) quantiles.count(dataMin, value - 1) / Math.max(1, quantiles.count(dataMin, dataMax));
+        } else {
+            fraction = toDouble(value - viewMin) / toDouble(viewMax - viewMin);
+        }
+        return (float) (drawMin + fraction * (drawMax - drawMin));
+    }
+
+    long getDataMin() {
+        return dataMin;
+    }
+
+    /**
+     * Greatest value on the step grid that is not greater than a data value
+     */
+    long floorStep(long value) {
+        if(value <= dataMin) {
+            return dataMin;
+        }
+
+        long index = divideUnsigned(value - dataMin, steps);
+        if(compareUnsigned(index, stepCount) > 0) {
+            index = stepCount;
+        }
+        return valueAtStep(index);
+    }
+
+    /**
+     * Least value on the step grid that is not less than a data value, or the last step for
+     * values past it
+     */
+    long ceilStep(long value) {
+        if(value <= dataMin) {
+            return dataMin;
+        }
+
+        long index = divideUnsigned(value - dataMin, steps);
+        if(compareUnsigned(index, stepCount) < 0 && valueAtStep(index) < value) {
+            index++;
+        }
+        return valueAtStep(index);
+    }
+
+    /**
+     * Value a count of steps away from the step nearest to a value, clamped to the range
+     * @param value Data value to start from
+     * @param count Steps to move, negative to move to lesser values
+     */
+    long offsetSteps(long value, long count) {
+        long index = divideUnsigned(snap(value) - dataMin, steps);
+        if(count >= 0) {
+            index = compareUnsigned(count, stepCount - index) >= 0 ? stepCount : index + count;
+        } else {
+            index = compareUnsigned(-count, index) >= 0 ? 0 : index + count;
+        }
+        return valueAtStep(index);
+    }
+
+    long valueAtStep(long index) {
+        return dataMin + index * steps;
+    }
+
+    static int compareUnsigned(long a, long b) {
+        a += Long.MIN_VALUE;
+        b += Long.MIN_VALUE;
+        return a < b ? -1 : (a == b ? 0 : 1);
+    }
+
+    static long divideUnsigned(long dividend, long divisor) {
+        if(divisor < 0) {
+            return compareUnsigned(dividend, divisor) < 0 ? 0 : 1;
+        }
+        if(dividend >= 0) {
+            return dividend / divisor;
+        }
+
+        long quotient = ((dividend >>> 1) / divisor) << 1;
+        long remainder = dividend - quotient * divisor;
+        return quotient + (compareUnsigned(remainder, divisor) >= 0 ? 1 : 0);
+    }
+
+    static double toDouble(long unsigned) {
+        if(unsigned >= 0) {
+            return unsigned;
+        }
+        return ((unsigned >>> 1) | (unsigned & 1)) * 2.0;
+    }
+
+    static long fromDouble(double unsigned) {
+        if(unsigned < TWO_POW_63) {
+            return (long) unsigned;
+        }
+        return (long) (unsigned - TWO_POW_63) + Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,88 @@
+package mx.segundamano.seekbars;
+
+import android.view.MotionEvent;
+
+/**
+ * Horizontal velocity of a pointer from the latest touch samples, including the historical
+ * samples batched into each move event. Samples live in a fixed ring buffer, so tracking a
+ * drag never allocates.
+ */
+final class VelocityEstimator {
+    private static final int CAPACITY = 20;
+    private static final long HORIZON_MILLIS = 80;
+
+    private final long[] times = new long[CAPACITY];
+    private final float[] positions = new float[CAPACITY];
+    private int next;
+    private int count;
+
+    void clear() {
+        next = 0;
+        count = 0;
+    }
+
+    void addMovement(MotionEvent event) {
+        for(int i = 0; i < event.getHistorySize(); i++) {
+            addSample(event.getHistoricalEventTime(i), event.getHistoricalX(i));
+        }
+        addSample(event.getEventTime(), event.getX());
+    }
+
+    void addSample(long timeMillis, float x) {
+        times[next] = timeMillis;
+        positions[next] = x;
+        next = (next + 1) % CAPACITY;
+        count = Math.min(count + 1, CAPACITY);
+    }
+
+    /**
+     * Least squares slope of the samples taken in the latest 80 milliseconds
+     * @return Velocity in pixels per millisecond, 0 if there are not enough samples
+     */
+    float getVelocity() {
+        if(count < 2) {
+            return 0;
+        }
+
+        int newest = (next - 1 + CAPACITY) % CAPACITY;
+        long newestTime = times[newest];
+        int used = 0;
+        float sumT = 0;
+        float sumX = 0;
+        for(int i = 0; i < count; i++) {
+            int index = (newest - i + CAPACITY) % CAPACITY;
+            if(newestTime - times[index] > HORIZON_MILLIS) {
+                break;
+            }
+            sumT += times[index] - newestTime;
+            sumX += positions[index];
+            used++;
+        }
+        if(used < 2) {
+            return 0;
+        }
+
+        float meanT = sumT / used;
+        float meanX = sumX / used;
+        float covariance = 0;
+        float variance = 0;
+        for(int i = 0; i < used; i++) {
+            int index = (newest - i + CAPACITY) % CAPACITY;
+            float t = times[index] - newestTime - meanT;
+            covariance += t * (positions[index] - meanX);
+            variance += t * t;
+        }
+        return variance > 0 ? covariance / variance : 0;
+    }
+
+    /**
+     * Position the pointer is expected to reach after a short time, at the actual velocity
+     * @param x Actual position
+     * @param aheadMillis Time to look ahead
+     * @param maxDistance Farthest the prediction can move from the actual position
+     */
+    float predict(float x, long aheadMillis, float maxDistance) {
+        float distance = getVelocity() * aheadMillis;
+        return x + Math.max(-maxDistance, Math.min(maxDistance, distance));
+    }
+}
@@ -0,0 +1,43 @@
+package mx.segundamano.seekbars;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AnchorSetTest {
+
+    private ValueScale scale;
+    private AnchorSet anchors;
+
+    @Before
+    public void setUp() {
+        scale = new ValueScale();
+        scale.setDrawRange(0, 1000);
+        scale.setRange(0, 1000, 10);
+        anchors = new AnchorSet();
+    }
+
+    @Test
+    public void testNearestAnchorInsideRadius() {
+        anchors.set(new long[]{99, 250, 499, 999}, 8);
+
+        assertEquals(2, anchors.find(scale, 505));
+        assertEquals(499, anchors.valueAt(anchors.find(scale, 493)));
+        assertEquals(-1, anchors.find(scale, 510));
+        assertEquals(-1, anchors.find(scale, 0));
+    }
+
+    @Test
+    public void testAnchorsOutsideViewportAreIgnored() {
+        anchors.set(new long[]{250}, 1000);
+        scale.setViewport(300, 400);
+
+        assertEquals(-1, anchors.find(scale, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsortedAnchorsAreRejected() {
+        anchors.set(new long[]{10, 5}, 8);
+    }
+}
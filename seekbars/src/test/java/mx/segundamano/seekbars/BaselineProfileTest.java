@@ -0,0 +1,132 @@
+package mx.segundamano.seekbars;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Generates the baseline profile of the library from its classes and checks the shipped one
+ * matches. Run with -PupdateBaselineProfile to write src/main/baseline-prof.txt again.
+ */
+public class BaselineProfileTest {
+    private static final File PROFILE = new File("src/main/baseline-prof.txt");
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final List<Class<?>> PRIMITIVES = Arrays.<Class<?>>asList(void.class, boolean.class,
+            byte.class, char.class, short.class, int.class, long.class, float.class, double.class);
+    private static final String PRIMITIVE_DESCRIPTORS = "VZBCSIJFD";
+
+    //Methods of the views run on the first layout, draw and drag
+    private static final List<String> VIEW_METHODS = Arrays.asList(
+            "setColors", "setLabels", "setValues",
+            "onMeasure", "onSizeChanged", "onDraw", "onTouchEvent",
+            "invalidateScale", "ensureScale", "setScale", "ensureLineBuffers", "getLabelSpace", "updateGuidePosition",
+            "updateStepPosition", "updateStepPositions", "updatePositionByStep",
+            "updateMinPositionByStep", "updateMaxPositionByStep", "updateProgress", "updateRange",
+            "valueAt", "predictPosition", "predictSettle", "startLowLatencyTracking", "drawAhead", "isLeftPressed",
+            "pressedPointer", "pressedPointers", "normalPointer", "normalPointers", "drawPointer",
+            "updateTicks", "updateExcludedLines",
+            "notifyValueChanged", "notifyValuesChange");
+
+    //Helpers used only from those paths, profiled whole
+    private static final List<Class<?>> HELPERS = Arrays.<Class<?>>asList(
+            ValueScale.class, ValueLabel.class, VelocityEstimator.class, SettlePredictor.class,
+            ExcludedIntervals.class, AnchorSet.class, ListenerRegistry.class, EdgeIndicator.class,
+            FixedPoint.class);
+
+    @Test
+    public void testProfileIsUpToDate() throws IOException {
+        String generated = generate();
+        if(Boolean.getBoolean("seekbars.updateBaselineProfile")) {
+            Files.write(PROFILE.toPath(), generated.getBytes(UTF_8));
+        }
+
+        String shipped = new String(Files.readAllBytes(PROFILE.toPath()), UTF_8);
+        assertEquals("Baseline profile is out of date, run the tests with -PupdateBaselineProfile",
+                generated, shipped);
+    }
+
+    @Test
+    public void testListedViewMethodsExist() {
+        for(String name : VIEW_METHODS) {
+            assertTrue("View method " + name + " no longer exists, remove it from the baseline profile list",
+                    declares(SeekBarView.class, name) || declares(DoubleSeekbarView.class, name));
+        }
+    }
+
+    private static boolean declares(Class<?> type, String name) {
+        for(Method method : type.getDeclaredMethods()) {
+            if(method.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String generate() {
+        List<String> rules = new ArrayList<>();
+        addView(rules, SeekBarView.class);
+        addView(rules, DoubleSeekbarView.class);
+        for(Class<?> helper : HELPERS) {
+            addClass(rules, helper, null);
+        }
+        Collections.sort(rules);
+
+        StringBuilder profile = new StringBuilder();
+        for(String rule : rules) {
+            profile.append(rule).append('\n');
+        }
+        return profile.toString();
+    }
+
+    private static void addView(List<String> rules, Class<?> view) {
+        addClass(rules, view, VIEW_METHODS);
+    }
+
+    private static void addClass(List<String> rules, Class<?> type, List<String> names) {
+        String owner = descriptor(type);
+        rules.add(owner);
+        for(Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if(!constructor.isSynthetic()) {
+                rules.add("HSP" + owner + "-><init>(" + descriptors(constructor.getParameterTypes()) + ")V");
+            }
+        }
+        for(Method method : type.getDeclaredMethods()) {
+            if(method.isSynthetic() || method.isBridge() || (names != null && !names.contains(method.getName()))) {
+                continue;
+            }
+            rules.add("HSP" + owner + "->" + method.getName() + "(" + descriptors(method.getParameterTypes()) + ")"
+                    + descriptor(method.getReturnType()));
+        }
+    }
+
+    private static String descriptors(Class<?>[] types) {
+        StringBuilder descriptors = new StringBuilder();
+        for(Class<?> type : types) {
+            descriptors.append(descriptor(type));
+        }
+        return descriptors.toString();
+    }
+
+    static String descriptor(Class<?> type) {
+        if(type.isArray()) {
+            return "[" + descriptor(type.getComponentType());
+        }
+        if(type.isPrimitive()) {
+            return String.valueOf(PRIMITIVE_DESCRIPTORS.charAt(PRIMITIVES.indexOf(type)));
+        }
+        return "L" + type.getName().replace('.', '/') + ";";
+    }
+}
@@ -1,5 +1,6 @@
 package mx.segundamano.seekbars;
 
+import android.app.Activity;
 import android.os.Build;
 
 import org.junit.Before;
@@ -9,10 +10,21 @@ import org.robolectric.Robolectric;
 import org.robolectric.RobolectricGradleTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @RunWith(RobolectricGradleTestRunner.class)
 @Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.LOLLIPOP)
@@ -73,4 +85,123 @@ public class DoubleSeekbarViewTest {
         doubleSeekbarView.setMaxValue(4);
     }
 
+    @Test
+    public void testPostedValuesAreCoalesced() {
+        DoubleSeekbarView.OnLongValuesChangeListener mockListener = mock(DoubleSeekbarView.OnLongValuesChangeListener.class);
+        doubleSeekbarView.setOnLongValuesChangeListener(mockListener);
+
+        ShadowLooper.pauseMainLooper();
+        doubleSeekbarView.postRange(0, 100, 5);
+        doubleSeekbarView.postActValues(10, 20);
+        doubleSeekbarView.postActValues(30, 90);
+        ShadowLooper.unPauseMainLooper();
+
+        assertEquals(100, doubleSeekbarView.getMaxValue());
+        assertEquals(30, doubleSeekbarView.getMinDataValue());
+        assertEquals(90, doubleSeekbarView.getMaxDataValue());
+        verify(mockListener, times(1)).onValuesChange(30, 90, ChangeSource.PROGRAMMATIC);
+    }
+
+    @Test
+    public void testActualValuesSetBeforeLayoutAreKept() {
+        doubleSeekbarView.setMaxValue(100);
+        doubleSeekbarView.setSteps(10);
+        doubleSeekbarView.setActMaxValue(80);
+        doubleSeekbarView.setActMinValue(20);
+        doubleSeekbarView.layout(0, 0, 1000, 100);
+
+        assertEquals(20, doubleSeekbarView.getMinDataValue());
+        assertEquals(80, doubleSeekbarView.getMaxDataValue());
+    }
+
+    @Test
+    public void testSelectedCountComesFromTheDistribution() {
+        doubleSeekbarView.setMaxValue(100);
+        doubleSeekbarView.setActMaxValue(80);
+        doubleSeekbarView.setActMinValue(20);
+        assertEquals(-1, doubleSeekbarView.getSelectedCount());
+
+        ValueHistogram histogram = new ValueHistogram(0, 100, 1);
+        for(int i = 0; i < 100; i++) {
+            histogram.add(i);
+        }
+        doubleSeekbarView.setValueDistribution(histogram);
+
+        assertEquals(61, doubleSeekbarView.getSelectedCount());
+    }
+
+    @Test
+    public void testSnapshotOrdersValuesSetPastEachOther() {
+        doubleSeekbarView.setMaxValue(100);
+        doubleSeekbarView.setActMaxValue(40);
+        doubleSeekbarView.setActMinValue(70);
+
+        SeekbarSnapshot snapshot = doubleSeekbarView.snapshot();
+
+        assertEquals(40, snapshot.getMinValue());
+        assertEquals(70, snapshot.getMaxValue());
+    }
+
+    @Test
+    public void testCancelledAnimationLeavesNotifiedValuesOnTheStepGrid() {
+        DoubleSeekbarView.OnLongValuesChangeListener mockListener = mock(DoubleSeekbarView.OnLongValuesChangeListener.class);
+        attach();
+        doubleSeekbarView.setOnLongValuesChangeListener(mockListener);
+
+        doubleSeekbarView.animateTo(30, 100, 100);
+        frame(0);
+        frame(30);
+        doubleSeekbarView.cancelAnimation();
+
+        long min = doubleSeekbarView.getMinDataValueAsLong();
+        long max = doubleSeekbarView.getMaxDataValueAsLong();
+        assertTrue(min > 0 && min < 30);
+        assertTrue(max > 50 && max < 100);
+        assertEquals(0, min % 10);
+        assertEquals(0, max % 10);
+        assertFalse(doubleSeekbarView.isAnimating());
+        verify(mockListener, times(1)).onValuesChange(anyLong(), anyLong(), anyInt());
+        verify(mockListener).onValuesChange(min, max, ChangeSource.PROGRAMMATIC);
+    }
+
+    @Test
+    public void testAnimationStartedFromTheEndListenerRuns() {
+        attach();
+        final List<Long> values = new ArrayList<>();
+        doubleSeekbarView.setOnLongValuesChangeListener(new DoubleSeekbarView.OnLongValuesChangeListener() {
+            @Override
+            public void onValuesChange(long minValue, long maxValue, int source) {
+                values.add(minValue);
+                values.add(maxValue);
+                if(minValue == 30) {
+                    doubleSeekbarView.animateTo(0, 50, 100);
+                }
+            }
+        });
+
+        doubleSeekbarView.animateTo(30, 100, 100);
+        frame(0);
+        frame(100);
+        assertTrue(doubleSeekbarView.isAnimating());
+        frame(200);
+        frame(300);
+
+        assertFalse(doubleSeekbarView.isAnimating());
+        assertEquals(Arrays.asList(30L, 100L, 0L, 50L), values);
+    }
+
+    private void attach() {
+        doubleSeekbarView.setMaxValue(100);
+        doubleSeekbarView.setSteps(10);
+        doubleSeekbarView.setActMaxValue(50);
+        Robolectric.setupActivity(Activity.class).setContentView(doubleSeekbarView);
+        //Frames are run by the test
+        ShadowLooper.pauseMainLooper();
+        doubleSeekbarView.layout(0, 0, 1000, 100);
+    }
+
+    private static void frame(long millis) {
+        SeekbarAnimator.getInstance().doFrame(millis * 1000000L);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package mx.segundamano.seekbars;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExcludedIntervalsTest {
+
+    private ValueScale scale;
+    private ExcludedIntervals excluded;
+
+    @Before
+    public void setUp() {
+        scale = new ValueScale();
+        scale.setDrawRange(0, 1000);
+        scale.setRange(0, 1000, 10);
+        excluded = new ExcludedIntervals();
+    }
+
+    @Test
+    public void testOverlappingIntervalsAreMerged() {
+        excluded.set(new long[]{500, 100, 150}, new long[]{600, 200, 250});
+
+        assertEquals(2, excluded.size());
+        assertEquals(100, excluded.getStart(0));
+        assertEquals(250, excluded.getEnd(0));
+        assertEquals(-1, excluded.indexOf(499));
+        assertEquals(1, excluded.indexOf(600));
+    }
+
+    @Test
+    public void testNearestAllowedValue() {
+        excluded.set(new long[]{100, 505}, new long[]{200, 600});
+
+        assertEquals(90, excluded.nearestAllowed(140, scale));
+        assertEquals(210, excluded.nearestAllowed(160, scale));
+        assertEquals(500, excluded.nearestAllowed(550, scale));
+        assertEquals(300, excluded.nearestAllowed(300, scale));
+    }
+
+    @Test
+    public void testNearestAllowedSkipsIntervalsCloserThanAStep() {
+        excluded.set(new long[]{0, 15, 995}, new long[]{11, 20, 1000});
+
+        assertEquals(30, excluded.nearestAllowed(0, scale));
+        assertEquals(990, excluded.nearestAllowed(1000, scale));
+    }
+
+    @Test
+    public void testLinesOnlyForVisibleIntervals() {
+        excluded.set(new long[]{100, 500, 900}, new long[]{200, 600, 950});
+        scale.setViewport(400, 800);
+        float[] lines = new float[12];
+
+        assertEquals(4, excluded.fillLines(scale, 10, lines));
+        assertEquals(250f, lines[0], 0.001f);
+        assertEquals(500f, lines[2], 0.001f);
+    }
+
+    @Test
+    public void testStepAllowedSkipsIntervals() {
+        excluded.set(new long[]{15, 30}, new long[]{25, 40});
+
+        assertEquals(50, excluded.stepAllowed(10, true, scale));
+        assertEquals(10, excluded.stepAllowed(50, false, scale));
+        assertEquals(1000, excluded.stepAllowed(1000, true, scale));
+        assertEquals(0, excluded.stepAllowed(0, false, scale));
+    }
+}
@@ -0,0 +1,56 @@
+package mx.segundamano.seekbars;
+
+import android.os.Build;
+import android.view.MotionEvent;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.LOLLIPOP)
+public class GestureTraceTest {
+
+    @Test
+    public void testReplayedDragEndsOnTheRecordedValue() throws IOException {
+        SeekBarView recorded = newSeekBar();
+        GestureTraceRecorder recorder = new GestureTraceRecorder();
+        recorded.setGestureTraceRecorder(recorder);
+
+        long down = 5000;
+        recorded.onTouchEvent(MotionEvent.obtain(down, down, MotionEvent.ACTION_DOWN, 100, 50, 0));
+        for(int i = 1; i <= 20; i++) {
+            recorded.onTouchEvent(MotionEvent.obtain(down, down + i * 8, MotionEvent.ACTION_MOVE, 100 + i * 30, 50, 0));
+        }
+        recorded.onTouchEvent(MotionEvent.obtain(down, down + 170, MotionEvent.ACTION_UP, 700, 50, 0));
+        assertEquals(22, recorder.getEventCount());
+
+        SeekBarView replayed = newSeekBar();
+        GestureTraceReplayer replayer = new GestureTraceReplayer(recorder.toByteArray());
+        GestureTraceReplayer.Result result = replayer.replay(replayed);
+
+        assertEquals(22, result.getEventCount());
+        assertEquals(recorded.getActDataValue(), replayed.getActDataValue());
+        assertTrue(result.getMaxNanos() >= result.getPercentileNanos(0.5));
+        assertTrue(result.getTotalNanos() >= result.getMaxNanos());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsUnknownTrace() throws IOException {
+        new GestureTraceReplayer(new byte[]{1, 2, 3, 4, 5});
+    }
+
+    private SeekBarView newSeekBar() {
+        SeekBarView seekBarView = new SeekBarView(RuntimeEnvironment.application);
+        seekBarView.setDataMax(1000);
+        seekBarView.layout(0, 0, 1000, 100);
+        return seekBarView;
+    }
+}
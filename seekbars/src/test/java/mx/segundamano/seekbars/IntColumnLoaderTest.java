@@ -0,0 +1,93 @@
+package mx.segundamano.seekbars;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntColumnLoaderTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("column", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testLoadsLittleEndianValuesInChunks() throws IOException {
+        write(1000);
+        final int[] sum = new int[2];
+
+        IntColumnLoader loader = new IntColumnLoader(file, 64);
+        boolean completed = loader.load(new IntColumnLoader.Consumer() {
+            @Override
+            public void onChunk(IntBuffer chunk) {
+                assertTrue(chunk.isReadOnly());
+                assertTrue(chunk.remaining() <= 64);
+                while(chunk.hasRemaining()) {
+                    assertEquals(sum[1] * 3 - 500, chunk.get());
+                    sum[1]++;
+                }
+                sum[0]++;
+            }
+        });
+
+        assertTrue(completed);
+        assertEquals(16, sum[0]);
+        assertEquals(1000, sum[1]);
+    }
+
+    @Test
+    public void testCancelStopsBetweenChunks() throws IOException {
+        write(1000);
+        final int[] chunks = new int[1];
+
+        final IntColumnLoader loader = new IntColumnLoader(file, 100);
+        boolean completed = loader.load(new IntColumnLoader.Consumer() {
+            @Override
+            public void onChunk(IntBuffer chunk) {
+                if(++chunks[0] == 3) {
+                    loader.cancel();
+                }
+            }
+        });
+
+        assertFalse(completed);
+        assertEquals(3, chunks[0]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsTruncatedFile() throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[]{1, 2, 3, 4, 5});
+        out.close();
+
+        new IntColumnLoader(file).load(new ValueHistogram(0, 10, 1));
+    }
+
+    private void write(int count) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(count * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for(int i = 0; i < count; i++) {
+            bytes.putInt(i * 3 - 500);
+        }
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(bytes.array());
+        out.close();
+    }
+}
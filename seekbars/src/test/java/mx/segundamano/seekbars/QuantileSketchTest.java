@@ -0,0 +1,118 @@
+package mx.segundamano.seekbars;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantileSketchTest {
+
+    //Bound documented for the default k, 1.65% of the count
+    private static final double MAX_RANK_ERROR = 0.0165;
+
+    @Test
+    public void testMergedShardsStayWithinTheErrorBound() {
+        Random random = new Random(42);
+        int shards = 8;
+        int perShard = 50000;
+        long[] all = new long[shards * perShard];
+
+        QuantileSketch merged = new QuantileSketch(QuantileSketch.DEFAULT_K, new Random(1));
+        for(int shard = 0; shard < shards; shard++) {
+            QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_K, new Random(shard + 2));
+            for(int i = 0; i < perShard; i++) {
+                //Skewed like prices, each shard with its own offset
+                long value = (long) (Math.exp(random.nextGaussian()) * 1000) + shard * 100;
+                all[shard * perShard + i] = value;
+                sketch.add(value);
+            }
+            merged.merge(sketch);
+        }
+        Arrays.sort(all);
+
+        assertEquals(all.length, merged.getTotalCount());
+        assertEquals(all[0], merged.quantile(0));
+        assertEquals(all[all.length - 1], merged.quantile(1));
+        for(int i = 1; i < 20; i++) {
+            double fraction = i / 20.0;
+            long value = merged.quantile(fraction);
+            double rank = (double) exactRank(all, value) / all.length;
+            assertTrue("Rank error at " + fraction, Math.abs(rank - fraction) <= MAX_RANK_ERROR);
+
+            long from = all[(int) (all.length * fraction / 2)];
+            long exactCount = exactRank(all, value) - exactRankBelow(all, from);
+            assertTrue("Count error at " + fraction, Math.abs(merged.count(from, value) - exactCount) <= MAX_RANK_ERROR * all.length);
+        }
+    }
+
+    @Test
+    public void testMemoryIsBounded() {
+        QuantileSketch sketch = new QuantileSketch();
+        for(int i = 0; i < 1000000; i++) {
+            sketch.add(i);
+        }
+
+        assertEquals(1000000, sketch.getTotalCount());
+        assertTrue(sketch.getRetainedCount() < 4 * QuantileSketch.DEFAULT_K);
+    }
+
+    @Test
+    public void testSmallSketchIsExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        for(int i = 1; i <= 100; i++) {
+            sketch.add(i);
+        }
+
+        assertEquals(50, sketch.quantile(0.5));
+        assertEquals(10, sketch.count(11, 20));
+        assertEquals(0, sketch.count(200, 300));
+    }
+
+    @Test
+    public void testQueriesSeeValuesAddedAfterAQuery() {
+        QuantileSketch sketch = new QuantileSketch();
+        for(int i = 1; i <= 100; i++) {
+            sketch.add(i);
+        }
+        assertEquals(50, sketch.quantile(0.5));
+        assertEquals(50, sketch.quantile(0.5));
+
+        QuantileSketch other = new QuantileSketch();
+        for(int i = 101; i <= 200; i++) {
+            other.add(i);
+        }
+        sketch.merge(other);
+        assertEquals(100, sketch.quantile(0.5));
+        assertEquals(100, sketch.count(101, 200));
+
+        sketch.add(300);
+        assertEquals(201, sketch.count(0, 300));
+        assertEquals(300, sketch.quantile(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEmptySketchHasNoQuantiles() {
+        new QuantileSketch().quantile(0.5);
+    }
+
+    private static long exactRank(long[] sorted, long value) {
+        return exactRankBelow(sorted, value + 1);
+    }
+
+    private static long exactRankBelow(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -1,7 +1,13 @@
 package mx.segundamano.seekbars;
 
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.graphics.Color;
 import android.os.Build;
+import android.view.KeyEvent;
 import android.view.MotionEvent;
+import android.view.View;
+import android.widget.LinearLayout;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -10,10 +16,20 @@ import org.robolectric.Robolectric;
 import org.robolectric.RobolectricGradleTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 
@@ -122,6 +138,117 @@ public class SeekBarViewTest {
         verify(mockListener).onValueChanged(expectedValue);
     }
 
+    @Test
+    public void testSetActualValueWithoutNotify() {
+        SeekBarView.OnLongValueChangeListener mockListener = mock(SeekBarView.OnLongValueChangeListener.class);
+        seekBarView.setOnLongValueChangeListener(mockListener);
+
+        seekBarView.setActualValue(5L, false);
+        seekBarView.setActualValue(6L);
+        seekBarView.setActualValue(6L);
+
+        assertEquals(6, seekBarView.getActDataValue());
+        verify(mockListener, times(1)).onValueChanged(anyLong(), anyInt());
+        verify(mockListener).onValueChanged(6L, ChangeSource.PROGRAMMATIC);
+    }
+
+    @Test
+    public void testSetActualValueFromListenerIsNotNotifiedAgain() {
+        final SeekBarView.OnLongValueChangeListener mockListener = mock(SeekBarView.OnLongValueChangeListener.class);
+        seekBarView.setOnLongValueChangeListener(new SeekBarView.OnLongValueChangeListener() {
+            @Override
+            public void onValueChanged(long value, int source) {
+                mockListener.onValueChanged(value, source);
+                seekBarView.setActualValue(value + 1);
+            }
+        });
+
+        seekBarView.setActualValue(3L);
+
+        assertEquals(4, seekBarView.getActDataValue());
+        verify(mockListener, times(1)).onValueChanged(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testAddedListenersAreAllNotified() {
+        SeekBarView.OnLongValueChangeListener first = mock(SeekBarView.OnLongValueChangeListener.class);
+        SeekBarView.OnLongValueChangeListener second = mock(SeekBarView.OnLongValueChangeListener.class);
+        seekBarView.addOnLongValueChangeListener(first);
+        seekBarView.addOnLongValueChangeListener(second, true);
+
+        seekBarView.setActualValue(3L);
+        seekBarView.removeOnLongValueChangeListener(first);
+        seekBarView.setActualValue(4L);
+
+        verify(first, times(1)).onValueChanged(3L, ChangeSource.PROGRAMMATIC);
+        verify(second, times(1)).onValueChanged(3L, ChangeSource.PROGRAMMATIC);
+        verify(second, times(1)).onValueChanged(4L, ChangeSource.PROGRAMMATIC);
+    }
+
+    @Test
+    public void testHeldKeyAcceleratesAndNotifiesOnRelease() {
+        SeekBarView.OnLongValueChangeListener mockListener = mock(SeekBarView.OnLongValueChangeListener.class);
+        seekBarView.setDataMax(100);
+        seekBarView.layout(0, 0, 1000, 100);
+        seekBarView.setOnLongValueChangeListener(mockListener);
+
+        for(int repeat = 0; repeat < 6; repeat++) {
+            seekBarView.onKeyDown(KeyEvent.KEYCODE_DPAD_RIGHT,
+                    new KeyEvent(0, 0, KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_RIGHT, repeat));
+        }
+        seekBarView.onKeyUp(KeyEvent.KEYCODE_DPAD_RIGHT, new KeyEvent(KeyEvent.ACTION_UP, KeyEvent.KEYCODE_DPAD_RIGHT));
+
+        assertEquals(9, seekBarView.getActDataValue());
+        verify(mockListener, times(1)).onValueChanged(anyLong(), anyInt());
+        verify(mockListener).onValueChanged(9L, ChangeSource.ADJUSTMENT);
+    }
+
+    @Test
+    public void testKeyThatCanNotMoveTheValueIsNotConsumed() {
+        seekBarView.setDataMax(100);
+        seekBarView.layout(0, 0, 1000, 100);
+        seekBarView.setActualValue(100L);
+
+        assertFalse(seekBarView.onKeyDown(KeyEvent.KEYCODE_DPAD_RIGHT,
+                new KeyEvent(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_RIGHT)));
+        assertFalse(seekBarView.onKeyUp(KeyEvent.KEYCODE_DPAD_RIGHT,
+                new KeyEvent(KeyEvent.ACTION_UP, KeyEvent.KEYCODE_DPAD_RIGHT)));
+        assertTrue(seekBarView.onKeyDown(KeyEvent.KEYCODE_DPAD_LEFT,
+                new KeyEvent(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_LEFT)));
+    }
+
+    @Test
+    public void testMeasureHonorsSpecsAndValueChangesDoNotRelayout() {
+        seekBarView.measure(View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        seekBarView.layout(0, 0, seekBarView.getMeasuredWidth(), seekBarView.getMeasuredHeight());
+        float density = RuntimeEnvironment.application.getResources().getDisplayMetrics().density;
+
+        assertEquals(800, seekBarView.getMeasuredWidth());
+        assertEquals((int) Math.ceil(30 * density), seekBarView.getMeasuredHeight());
+
+        seekBarView.setActualValue(5);
+        seekBarView.setPointersColor(Color.RED);
+        seekBarView.setEnabled(false);
+        assertFalse(seekBarView.isLayoutRequested());
+    }
+
+    @Test
+    public void testTrimmedCachesAreRebuiltWithTheSameValue() {
+        seekBarView.setDataMax(100);
+        seekBarView.setSteps(10);
+        seekBarView.setActualValue(50);
+        seekBarView.layout(0, 0, 1000, 100);
+        seekBarView.onAttachedToWindow();
+
+        RuntimeEnvironment.application.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertEquals(50, seekBarView.getActDataValue());
+
+        seekBarView.onTouchEvent(MotionEvent.obtain(100, 100, MotionEvent.ACTION_DOWN, 1000, 0, 0));
+        assertEquals(100, seekBarView.getActDataValue());
+        seekBarView.onDetachedFromWindow();
+    }
+
     @Test
     public void testSetSteps() {
         int expectedValue = 20;
@@ -130,6 +257,16 @@ public class SeekBarViewTest {
         assertEquals(expectedValue, seekBarView.getSteps());
     }
 
+    @Test
+    public void testActualValueSetBeforeLayoutIsKept() {
+        seekBarView.setDataMax(100);
+        seekBarView.setSteps(10);
+        seekBarView.setActualValue(50);
+        seekBarView.layout(0, 0, 1000, 100);
+
+        assertEquals(50, seekBarView.getActDataValue());
+    }
+
     @Test
     public void testOnTouch() {
         MotionEvent motionEvent = MotionEvent.obtain(100, 100, MotionEvent.ACTION_DOWN, 30, 0, 0);
@@ -141,4 +278,112 @@ public class SeekBarViewTest {
 
         assertEquals(0, seekBarView.getActDataValue());
     }
+
+    @Test
+    public void testCancelledAnimationLeavesANotifiedValueOnTheStepGrid() {
+        SeekBarView.OnLongValueChangeListener mockListener = mock(SeekBarView.OnLongValueChangeListener.class);
+        attach(seekBarView);
+        seekBarView.setOnLongValueChangeListener(mockListener);
+
+        seekBarView.animateTo(100, 100);
+        frame(0);
+        frame(30);
+        seekBarView.cancelAnimation();
+
+        long value = seekBarView.getActDataValue();
+        assertTrue(value > 0 && value < 100);
+        assertEquals(0, value % 10);
+        assertFalse(seekBarView.isAnimating());
+        verify(mockListener, times(1)).onValueChanged(anyLong(), anyInt());
+        verify(mockListener).onValueChanged(value, ChangeSource.PROGRAMMATIC);
+    }
+
+    @Test
+    public void testAnimationStartedFromTheEndListenerRuns() {
+        attach(seekBarView);
+        final List<Long> values = new ArrayList<>();
+        seekBarView.setOnLongValueChangeListener(new SeekBarView.OnLongValueChangeListener() {
+            @Override
+            public void onValueChanged(long value, int source) {
+                values.add(value);
+                if(value == 100) {
+                    seekBarView.animateTo(0, 100);
+                }
+            }
+        });
+
+        seekBarView.animateTo(100, 100);
+        frame(0);
+        frame(100);
+        assertTrue(seekBarView.isAnimating());
+        frame(200);
+        frame(300);
+
+        assertEquals(0, seekBarView.getActDataValue());
+        assertFalse(seekBarView.isAnimating());
+        assertEquals(Arrays.asList(100L, 0L), values);
+    }
+
+    @Test
+    public void testAnimationCancelledByAnotherOneDoesNotRunAgain() {
+        final SeekBarView first = seekBarView;
+        final SeekBarView second = createView();
+        SeekBarView third = createView();
+        SeekBarView.OnLongValueChangeListener secondListener = mock(SeekBarView.OnLongValueChangeListener.class);
+        SeekBarView.OnLongValueChangeListener thirdListener = mock(SeekBarView.OnLongValueChangeListener.class);
+        attach(first, second, third);
+        first.setOnLongValueChangeListener(new SeekBarView.OnLongValueChangeListener() {
+            @Override
+            public void onValueChanged(long value, int source) {
+                second.cancelAnimation();
+            }
+        });
+        second.setOnLongValueChangeListener(secondListener);
+        third.setOnLongValueChangeListener(thirdListener);
+
+        first.animateTo(100, 100);
+        second.animateTo(100, 200);
+        third.animateTo(100, 100);
+        frame(0);
+        frame(50);
+        frame(100);
+        long secondValue = second.getActDataValue();
+        frame(200);
+
+        assertEquals(100, first.getActDataValue());
+        assertTrue(secondValue > 0 && secondValue < 100);
+        assertEquals(secondValue, second.getActDataValue());
+        assertEquals(100, third.getActDataValue());
+        assertFalse(second.isAnimating());
+        verify(secondListener, times(1)).onValueChanged(anyLong(), anyInt());
+        verify(secondListener).onValueChanged(secondValue, ChangeSource.PROGRAMMATIC);
+        verify(thirdListener, times(1)).onValueChanged(100L, ChangeSource.PROGRAMMATIC);
+    }
+
+    private SeekBarView createView() {
+        return new SeekBarView(RuntimeEnvironment.application,
+                Robolectric.buildAttributeSet()
+                        .addAttribute(R.attr.guideColor, "#FFF")
+                        .addAttribute(R.attr.pointerColor, "#CCC")
+                        .build());
+    }
+
+    private static void attach(SeekBarView... views) {
+        LinearLayout layout = new LinearLayout(RuntimeEnvironment.application);
+        for(SeekBarView view : views) {
+            view.setDataMax(100);
+            view.setSteps(10);
+            layout.addView(view);
+        }
+        Robolectric.setupActivity(Activity.class).setContentView(layout);
+        //Frames are run by the test
+        ShadowLooper.pauseMainLooper();
+        for(SeekBarView view : views) {
+            view.layout(0, 0, 1000, 100);
+        }
+    }
+
+    private static void frame(long millis) {
+        SeekbarAnimator.getInstance().doFrame(millis * 1000000L);
+    }
 }
\ No newline at end of file
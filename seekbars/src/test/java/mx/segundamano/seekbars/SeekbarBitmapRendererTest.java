@@ -0,0 +1,68 @@
+package mx.segundamano.seekbars;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.LOLLIPOP)
+public class SeekbarBitmapRendererTest {
+
+    private SeekbarBitmapRenderer renderer;
+
+    @Before
+    public void setUp() {
+        renderer = new SeekbarBitmapRenderer(RuntimeEnvironment.application, new BitmapPool(1024 * 1024),
+                new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                });
+    }
+
+    @Test
+    public void testRendersAKnownStateIntoAClearedBitmap() {
+        DoubleSeekbarView view = new DoubleSeekbarView(RuntimeEnvironment.application);
+        view.setMaxValue(100);
+        view.setActMaxValue(40);
+        //Past the max value, the snapshot orders them
+        view.setActMinValue(70);
+        SeekbarSnapshot snapshot = view.snapshot();
+
+        Bitmap bitmap = renderer.render(snapshot, 200, 40);
+        assertEquals(200, bitmap.getWidth());
+        assertEquals(40, bitmap.getHeight());
+        assertEquals(Bitmap.Config.ARGB_8888, bitmap.getConfig());
+        assertCornersAreClear(bitmap);
+
+        //A reused bitmap is erased before drawing
+        bitmap.setPixel(0, 0, Color.RED);
+        bitmap.setPixel(199, 39, Color.RED);
+        renderer.release(bitmap);
+        Bitmap reused = renderer.render(snapshot, 200, 40);
+        assertSame(bitmap, reused);
+        assertCornersAreClear(reused);
+    }
+
+    private static void assertCornersAreClear(Bitmap bitmap) {
+        int right = bitmap.getWidth() - 1;
+        int bottom = bitmap.getHeight() - 1;
+        assertEquals(Color.TRANSPARENT, bitmap.getPixel(0, 0));
+        assertEquals(Color.TRANSPARENT, bitmap.getPixel(right, 0));
+        assertEquals(Color.TRANSPARENT, bitmap.getPixel(0, bottom));
+        assertEquals(Color.TRANSPARENT, bitmap.getPixel(right, bottom));
+    }
+}
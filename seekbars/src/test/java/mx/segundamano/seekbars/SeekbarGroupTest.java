@@ -0,0 +1,84 @@
+package mx.segundamano.seekbars;
+
+import android.os.Build;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.LOLLIPOP)
+public class SeekbarGroupTest {
+
+    private SeekbarGroup group;
+    private SeekBarView seekBarView;
+    private DoubleSeekbarView doubleSeekbarView;
+
+    @Before
+    public void setUp() {
+        group = new SeekbarGroup(RuntimeEnvironment.application);
+        seekBarView = new SeekBarView(RuntimeEnvironment.application);
+        doubleSeekbarView = new DoubleSeekbarView(RuntimeEnvironment.application);
+        group.addView(seekBarView);
+        group.addView(doubleSeekbarView);
+    }
+
+    @Test
+    public void testTransactionNotifiesEachSeekbarOnce() {
+        SeekBarView.OnLongValueChangeListener singleListener = mock(SeekBarView.OnLongValueChangeListener.class);
+        DoubleSeekbarView.OnLongValuesChangeListener doubleListener = mock(DoubleSeekbarView.OnLongValuesChangeListener.class);
+        seekBarView.setOnLongValueChangeListener(singleListener);
+        doubleSeekbarView.setOnLongValuesChangeListener(doubleListener);
+
+        group.beginTransaction();
+        seekBarView.setActualValue(3L);
+        seekBarView.setActualValue(7L);
+        doubleSeekbarView.setActValues(2, 8, true);
+        verifyZeroInteractions(singleListener, doubleListener);
+        group.endTransaction();
+
+        verify(singleListener, times(1)).onValueChanged(7L, ChangeSource.PROGRAMMATIC);
+        verify(doubleListener, times(1)).onValuesChange(2L, 8L, ChangeSource.PROGRAMMATIC);
+    }
+
+    @Test
+    public void testOneGroupEventPerFrame() {
+        SeekbarGroup.OnGroupChangeListener groupListener = mock(SeekbarGroup.OnGroupChangeListener.class);
+        group.setOnGroupChangeListener(groupListener);
+
+        ShadowLooper.pauseMainLooper();
+        seekBarView.setActualValue(3L);
+        seekBarView.setActualValue(4L);
+        doubleSeekbarView.setActValues(1, 9, true);
+        ShadowLooper.unPauseMainLooper();
+
+        verify(groupListener, times(1)).onGroupChange(eq(group), anyListOf(View.class));
+    }
+
+    @Test
+    public void testRemovedSeekbarLeavesGroup() {
+        SeekBarView.OnLongValueChangeListener singleListener = mock(SeekBarView.OnLongValueChangeListener.class);
+        seekBarView.setOnLongValueChangeListener(singleListener);
+        group.removeView(seekBarView);
+
+        group.beginTransaction();
+        seekBarView.setActualValue(5L);
+        verify(singleListener, times(1)).onValueChanged(5L, ChangeSource.PROGRAMMATIC);
+        group.endTransaction();
+
+        assertEquals(1, group.getChildCount());
+    }
+}
@@ -0,0 +1,84 @@
+package mx.segundamano.seekbars;
+
+import android.os.Build;
+import android.os.Parcel;
+import android.view.AbsSavedState;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.LOLLIPOP)
+public class SeekbarSavedStateTest {
+
+    //Bytes the seek bar fields may add to the parcel, on top of the super state
+    private static final int MAX_PARCEL_BYTES_PER_INSTANCE = 32;
+
+    private SeekbarSavedState priceState() {
+        SeekbarSavedState state = new SeekbarSavedState(AbsSavedState.EMPTY_STATE);
+        state.fields = SeekbarSavedState.FIELD_RANGE | SeekbarSavedState.FIELD_STEPS | SeekbarSavedState.FIELD_MIN_VALUE
+                | SeekbarSavedState.FIELD_MAX_VALUE | SeekbarSavedState.FIELD_DECIMAL_PLACES;
+        state.dataMin = 0;
+        state.dataMax = 1000000000L;
+        state.steps = 50000;
+        state.minValue = 150000000L;
+        state.maxValue = 400000000L;
+        state.decimalPlaces = 2;
+        return state;
+    }
+
+    @Test
+    public void testParcelRoundTrip() {
+        Parcel parcel = Parcel.obtain();
+        priceState().writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+
+        SeekbarSavedState restored = SeekbarSavedState.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+
+        assertEquals(0, restored.dataMin);
+        assertEquals(1000000000L, restored.dataMax);
+        assertEquals(50000, restored.steps);
+        assertEquals(150000000L, restored.minValue);
+        assertEquals(400000000L, restored.maxValue);
+        assertEquals(2, restored.decimalPlaces);
+    }
+
+    @Test
+    public void testEncodesWholeLongRange() throws Exception {
+        SeekbarSavedState state = new SeekbarSavedState(AbsSavedState.EMPTY_STATE);
+        state.fields = SeekbarSavedState.FIELD_RANGE | SeekbarSavedState.FIELD_MIN_VALUE;
+        state.dataMin = Long.MIN_VALUE;
+        state.dataMax = Long.MAX_VALUE;
+        state.minValue = -1;
+
+        SeekbarSavedState decoded = new SeekbarSavedState(AbsSavedState.EMPTY_STATE);
+        decoded.decode(state.encode());
+
+        assertEquals(Long.MIN_VALUE, decoded.dataMin);
+        assertEquals(Long.MAX_VALUE, decoded.dataMax);
+        assertEquals(-1, decoded.minValue);
+        assertTrue(decoded.has(SeekbarSavedState.FIELD_MIN_VALUE));
+        assertTrue(!decoded.has(SeekbarSavedState.FIELD_MAX_VALUE));
+    }
+
+    @Test
+    public void testParcelBytesPerInstance() {
+        Parcel empty = Parcel.obtain();
+        new View.BaseSavedState(AbsSavedState.EMPTY_STATE).writeToParcel(empty, 0);
+        Parcel parcel = Parcel.obtain();
+        priceState().writeToParcel(parcel, 0);
+
+        int bytes = parcel.dataSize() - empty.dataSize();
+        empty.recycle();
+        parcel.recycle();
+
+        assertTrue("Saved state takes " + bytes + " bytes", bytes <= MAX_PARCEL_BYTES_PER_INSTANCE);
+    }
+}
@@ -0,0 +1,201 @@
+package mx.segundamano.seekbars;
+
+import android.os.Build;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.LOLLIPOP)
+public class SeekbarStateStoreTest {
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(RuntimeEnvironment.application.getFilesDir(), "test.state");
+        file.delete();
+    }
+
+    @Test
+    public void testStateSurvivesANewStore() {
+        SeekbarStateStore store = new SeekbarStateStore(file);
+        store.put("price", new long[]{0, 1000, 10, 250});
+        store.put("year", new long[]{-5, Long.MAX_VALUE});
+        store.close();
+        runTasks(store);
+
+        SeekbarStateStore restored = new SeekbarStateStore(file);
+        assertArrayEquals(new long[]{0, 1000, 10, 250}, read(restored, "price"));
+        assertArrayEquals(new long[]{-5, Long.MAX_VALUE}, read(restored, "year"));
+        assertNull(read(restored, "mileage"));
+        restored.close();
+    }
+
+    @Test
+    public void testChangesAreWrittenTogether() {
+        SeekbarStateStore store = new SeekbarStateStore(file);
+        store.load();
+        runTasks(store);
+
+        for(int value = 0; value < 50; value++) {
+            store.put("price", new long[]{value});
+        }
+        store.put("year", new long[]{2016});
+
+        assertFalse(file.exists());
+        assertEquals(1, shadowOf(store.getIoLooper()).getScheduler().size());
+        runTasks(store);
+        assertTrue(file.exists());
+
+        SeekbarStateStore restored = new SeekbarStateStore(file);
+        assertArrayEquals(new long[]{49}, read(restored, "price"));
+        assertArrayEquals(new long[]{2016}, read(restored, "year"));
+        store.close();
+        restored.close();
+    }
+
+    @Test
+    public void testCorruptFileIsReplaced() throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[]{0x53, 0x42, 0x53, 0x54, 1, 5, 7});
+        out.close();
+
+        SeekbarStateStore store = new SeekbarStateStore(file);
+        assertNull(read(store, "price"));
+        assertTrue(store.isLoaded());
+
+        store.put("price", new long[]{100, 200});
+        store.flush();
+        runTasks(store);
+        store.close();
+
+        SeekbarStateStore restored = new SeekbarStateStore(file);
+        assertArrayEquals(new long[]{100, 200}, read(restored, "price"));
+        restored.close();
+    }
+
+    @Test
+    public void testClosedStoreIgnoresSeekBars() {
+        SeekbarStateStore store = new SeekbarStateStore(file);
+        store.put("price", new long[]{1});
+        store.close();
+        runTasks(store);
+
+        store.put("price", new long[]{2});
+        assertNull(read(store, "price"));
+
+        SeekbarStateStore restored = new SeekbarStateStore(file);
+        assertArrayEquals(new long[]{1}, read(restored, "price"));
+        restored.close();
+    }
+
+    @Test
+    public void testClosedSeekBarStoreDoesNotThrowOnChanges() {
+        SeekbarStateStore store = new SeekbarStateStore(file);
+        SeekBarView seekBarView = new SeekBarView(RuntimeEnvironment.application);
+        seekBarView.setDataMax(100);
+        seekBarView.setStateStore(store, "price");
+        store.close();
+        runTasks(store);
+
+        seekBarView.setActualValue(50L);
+
+        assertEquals(50, seekBarView.getActDataValue());
+    }
+
+    @Test
+    public void testTapThatChangesNothingIsNotSaved() {
+        SeekbarStateStore store = new SeekbarStateStore(file);
+        store.load();
+        runTasks(store);
+        SeekBarView seekBarView = new SeekBarView(RuntimeEnvironment.application);
+        seekBarView.setDataMax(100);
+        seekBarView.layout(0, 0, 1000, 100);
+        seekBarView.setStateStore(store, "price");
+
+        seekBarView.onTouchEvent(MotionEvent.obtain(100, 100, MotionEvent.ACTION_DOWN, 0, 50, 0));
+        seekBarView.onTouchEvent(MotionEvent.obtain(100, 120, MotionEvent.ACTION_UP, 0, 50, 0));
+
+        assertEquals(0, seekBarView.getActDataValue());
+        assertEquals(0, shadowOf(store.getIoLooper()).getScheduler().size());
+        store.close();
+    }
+
+    @Test
+    public void testRestoredStateIsNotWrittenBack() {
+        SeekbarStateStore store = new SeekbarStateStore(file);
+        store.put("price", new long[]{0, 100, 1, 40});
+        store.flush();
+        runTasks(store);
+
+        SeekBarView seekBarView = new SeekBarView(RuntimeEnvironment.application);
+        seekBarView.setStateStore(store, "price");
+
+        assertEquals(40, seekBarView.getActDataValue());
+        assertEquals(0, shadowOf(store.getIoLooper()).getScheduler().size());
+        store.close();
+    }
+
+    @Test
+    public void testValueSetWhileLoadingIsNotOverwritten() {
+        SeekbarStateStore store = new SeekbarStateStore(file);
+        store.put("price", new long[]{0, 100, 1, 40});
+        store.close();
+        runTasks(store);
+
+        SeekbarStateStore restored = new SeekbarStateStore(file);
+        SeekBarView seekBarView = new SeekBarView(RuntimeEnvironment.application);
+        seekBarView.setDataMax(100);
+        ShadowLooper.pauseMainLooper();
+        seekBarView.setStateStore(restored, "price");
+        runTasks(restored);
+        seekBarView.setActualValue(70L);
+        ShadowLooper.unPauseMainLooper();
+
+        assertEquals(70, seekBarView.getActDataValue());
+        assertArrayEquals(new long[]{0, 100, 1, 70}, read(restored, "price"));
+        restored.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedStoreCanNotBeFlushed() {
+        SeekbarStateStore store = new SeekbarStateStore(file);
+        store.close();
+        store.flush();
+    }
+
+    private static long[] read(SeekbarStateStore store, String key) {
+        final long[][] result = new long[1][];
+        store.get(key, new SeekbarStateStore.Callback() {
+            @Override
+            public void onStateLoaded(long[] values) {
+                result[0] = values;
+            }
+        });
+        runTasks(store);
+        ShadowLooper.idleMainLooper();
+        return result[0];
+    }
+
+    private static void runTasks(SeekbarStateStore store) {
+        shadowOf(store.getIoLooper()).runToEndOfTasks();
+    }
+}
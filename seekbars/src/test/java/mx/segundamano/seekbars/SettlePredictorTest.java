@@ -0,0 +1,56 @@
+package mx.segundamano.seekbars;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SettlePredictorTest {
+
+    private VelocityEstimator estimator;
+    private SettlePredictor predictor;
+
+    @Before
+    public void setUp() {
+        estimator = new VelocityEstimator();
+        predictor = new SettlePredictor();
+        predictor.setThreshold(100);
+    }
+
+    @Test
+    public void testFiresOnceWhenVelocityDecays() {
+        //Half a pixel per millisecond, 500 pixels per second
+        for(int i = 0; i < 10; i++) {
+            estimator.addSample(1000 + i * 8, 100 + i * 4);
+            assertFalse(predictor.onMove(estimator));
+        }
+
+        //Nearly still for longer than the velocity horizon
+        boolean fired = false;
+        for(int i = 1; i <= 15; i++) {
+            estimator.addSample(1072 + i * 8, 136 + i * 0.2f);
+            if(predictor.onMove(estimator)) {
+                assertFalse("Fired twice", fired);
+                fired = true;
+            }
+        }
+
+        assertTrue(fired);
+        assertEquals(141.5f, predictor.settlePosition(estimator, 139f, 10), 0.1f);
+    }
+
+    @Test
+    public void testSlowDragDoesNotFire() {
+        for(int i = 0; i < 20; i++) {
+            estimator.addSample(1000 + i * 8, 100 + i * 0.5f);
+            assertFalse(predictor.onMove(estimator));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThresholdShouldBePositive() {
+        predictor.setThreshold(0);
+    }
+}
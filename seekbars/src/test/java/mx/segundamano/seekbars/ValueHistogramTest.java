@@ -0,0 +1,45 @@
+package mx.segundamano.seekbars;
+
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class ValueHistogramTest {
+
+    @Test
+    public void testCountsAndQuantilesAreExactPerBin() {
+        ValueHistogram histogram = new ValueHistogram(0, 1000, 10);
+        int[] values = new int[1000];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        histogram.add(IntBuffer.wrap(values));
+
+        assertEquals(1000, histogram.getTotalCount());
+        assertEquals(100, histogram.count(100, 199));
+        assertEquals(10, histogram.count(105, 105));
+        assertEquals(0, histogram.count(200, 100));
+        assertEquals(0, histogram.quantile(0));
+        assertEquals(490, histogram.quantile(0.5));
+        assertEquals(990, histogram.quantile(1));
+    }
+
+    @Test
+    public void testValuesOutsideTheRangeCountInTheEdgeBins() {
+        ValueHistogram histogram = new ValueHistogram(-100, 100, 50);
+        histogram.add(Long.MIN_VALUE);
+        histogram.add(-100);
+        histogram.add(1000);
+
+        assertEquals(2, histogram.count(-100, -100));
+        assertEquals(1, histogram.count(100, 100));
+        assertEquals(3, histogram.count(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsTooManyBins() {
+        new ValueHistogram(Long.MIN_VALUE, Long.MAX_VALUE, 1);
+    }
+}
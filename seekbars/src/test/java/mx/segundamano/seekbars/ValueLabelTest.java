@@ -0,0 +1,60 @@
+package mx.segundamano.seekbars;
+
+import android.os.Build;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.LOLLIPOP)
+public class ValueLabelTest {
+
+    private ValueLabel valueLabel;
+
+    @Before
+    public void setUp() {
+        valueLabel = new ValueLabel(RuntimeEnvironment.application.getResources().getDisplayMetrics());
+    }
+
+    private String format(long value) {
+        int length = valueLabel.format(value);
+        return new String(valueLabel.getBuffer(), valueLabel.getStart(), length);
+    }
+
+    @Test
+    public void testFormatGroupsThousands() {
+        assertEquals("0", format(0));
+        assertEquals("999", format(999));
+        assertEquals("1,000", format(1000));
+        assertEquals("12,345,678", format(12345678));
+    }
+
+    @Test
+    public void testFormatNegativeValues() {
+        assertEquals("-1,500", format(-1500));
+        assertEquals("-9,223,372,036,854,775,808", format(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void testFormatWithPrefixAndSeparator() {
+        valueLabel.setPrefix("$");
+        valueLabel.setGroupingSeparator('.');
+
+        assertEquals("$2.500.000", format(2500000));
+    }
+
+    @Test
+    public void testFormatFixedPointDecimals() {
+        valueLabel.setDecimalPlaces(2);
+
+        assertEquals("0.05", format(5));
+        assertEquals("1,234.56", format(123456));
+        assertEquals("-0.50", format(-50));
+    }
+}
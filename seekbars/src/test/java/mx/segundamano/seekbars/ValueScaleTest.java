@@ -0,0 +1,160 @@
+package mx.segundamano.seekbars;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ValueScaleTest {
+
+    private ValueScale scale;
+
+    @Before
+    public void setUp() {
+        scale = new ValueScale();
+        scale.setDrawRange(0, 1000);
+    }
+
+    @Test
+    public void testSnapToNearestStep() {
+        scale.setRange(0, 100, 10);
+
+        assertEquals(20, scale.snap(24));
+        assertEquals(30, scale.snap(25));
+        assertEquals(0, scale.snap(-5));
+        assertEquals(100, scale.snap(150));
+    }
+
+    @Test
+    public void testValueAtPosition() {
+        scale.setRange(0, 100, 10);
+
+        assertEquals(0, scale.valueAt(-10));
+        assertEquals(50, scale.valueAt(500));
+        assertEquals(50, scale.valueAt(520));
+        assertEquals(100, scale.valueAt(2000));
+        assertEquals(500f, scale.positionOf(50), 0.001f);
+    }
+
+    @Test
+    public void testWholeLongRangeIsExact() {
+        scale.setRange(Long.MIN_VALUE, Long.MAX_VALUE, 1);
+
+        assertEquals(-1L, scale.getStepCount());
+        assertEquals(Long.MIN_VALUE, scale.valueAt(0));
+        assertEquals(Long.MAX_VALUE, scale.valueAt(1000));
+        assertEquals(Long.MAX_VALUE - 1, scale.snap(Long.MAX_VALUE - 1));
+        assertEquals(1000f, scale.positionOf(Long.MAX_VALUE), 0.001f);
+    }
+
+    @Test
+    public void testBigStepsSnapExactly() {
+        long step = 1000000000000L;
+        scale.setRange(Long.MIN_VALUE, Long.MAX_VALUE, step);
+
+        long value = scale.snap(123456789012345678L);
+        long offset = value - Long.MIN_VALUE;
+        assertEquals(offset, ValueScale.divideUnsigned(offset, step) * step);
+        assertEquals(true, Math.abs(value - 123456789012345678L) <= step / 2);
+    }
+
+    @Test
+    public void testViewportMapsOnlyTheVisibleWindow() {
+        scale.setRange(0, 10000000, 1);
+        scale.setViewport(5000000, 5001000);
+
+        assertEquals(5000000, scale.valueAt(0));
+        assertEquals(5000500, scale.valueAt(500));
+        assertEquals(5001000, scale.valueAt(2000));
+        assertEquals(0f, scale.positionOf(0), 0.001f);
+        assertEquals(1000f, scale.positionOf(10000000), 0.001f);
+        assertEquals(false, scale.isVisible(4999999));
+    }
+
+    @Test
+    public void testZoomKeepsValueUnderFocus() {
+        scale.setRange(0, 10000000, 1);
+        scale.zoom(250, 250, 100, 4);
+
+        assertEquals(true, scale.isZoomed());
+        assertEquals(100000, scale.getViewMax() - scale.getViewMin());
+        assertEquals(2500000, scale.valueAt(250));
+
+        scale.zoom(250, 250, 0.001f, 4);
+        assertEquals(false, scale.isZoomed());
+    }
+
+    @Test
+    public void testStepPositionsInViewport() {
+        scale.setRange(0, 1000, 10);
+        scale.setViewport(95, 135);
+        float[] positions = new float[10];
+
+        assertEquals(4, scale.stepPositions(positions, 50));
+        assertEquals(125f, positions[0], 0.001f);
+        assertEquals(0, scale.stepPositions(positions, 500));
+    }
+
+    @Test
+    public void testAdaptiveResolutionSnapsToPixels() {
+        scale.setRange(0, 10005, 1);
+        scale.setAdaptiveResolution(true);
+
+        assertEquals(11, scale.getTouchStride());
+        assertEquals(0, scale.valueAt(0) % 11);
+        assertEquals(5049, scale.valueAt(504.6f));
+        assertEquals(10005, scale.valueAt(1000));
+        assertEquals(5033, scale.snap(5033));
+    }
+
+    @Test
+    public void testOffsetStepsIsClamped() {
+        scale.setRange(0, 100, 10);
+
+        assertEquals(40, scale.offsetSteps(12, 3));
+        assertEquals(100, scale.offsetSteps(50, Long.MAX_VALUE));
+        assertEquals(0, scale.offsetSteps(50, Long.MIN_VALUE));
+        assertEquals(30, scale.offsetSteps(50, -2));
+    }
+
+    @Test
+    public void testQuantileScaleGivesDenseValuesMoreSpace() {
+        ValueHistogram histogram = new ValueHistogram(0, 100, 10);
+        for(int i = 0; i < 91; i++) {
+            histogram.add(0);
+        }
+        for(int i = 1; i < 10; i++) {
+            histogram.add(i * 10);
+        }
+        scale.setRange(0, 100, 10);
+        scale.setQuantiles(histogram);
+
+        assertEquals(0f, scale.positionOf(0), 0.01f);
+        assertEquals(910f, scale.positionOf(10), 0.01f);
+        assertEquals(0, scale.valueAt(500));
+        assertEquals(40, scale.valueAt(950));
+
+        scale.setViewport(0, 50);
+        assertEquals(500f, scale.positionOf(25), 0.01f);
+    }
+
+    @Test
+    public void testQuantileScaleWithAWiderDistributionFollowsThePointer() {
+        ValueHistogram histogram = new ValueHistogram(0, 1000, 1);
+        for(int i = 0; i <= 1000; i++) {
+            histogram.add(i);
+        }
+        scale.setRange(0, 500, 1);
+        scale.setQuantiles(histogram);
+
+        long middle = scale.rawValueAt(500);
+        assertEquals(250, middle, 1);
+        assertEquals(500f, scale.positionOf(middle), 2f);
+        assertEquals(500, scale.rawValueAt(1000));
+
+        scale.setRange(500, 1000, 1);
+        middle = scale.rawValueAt(500);
+        assertEquals(750, middle, 1);
+        assertEquals(500f, scale.positionOf(middle), 2f);
+    }
+}
@@ -0,0 +1,43 @@
+package mx.segundamano.seekbars;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class VelocityEstimatorTest {
+
+    private VelocityEstimator estimator;
+
+    @Before
+    public void setUp() {
+        estimator = new VelocityEstimator();
+    }
+
+    @Test
+    public void testConstantVelocity() {
+        for(int i = 0; i < 10; i++) {
+            estimator.addSample(1000 + i * 8, 100 + i * 4);
+        }
+
+        assertEquals(0.5f, estimator.getVelocity(), 0.001f);
+        assertEquals(208f, estimator.predict(200, 16, 50), 0.01f);
+        assertEquals(205f, estimator.predict(200, 16, 5), 0.01f);
+    }
+
+    @Test
+    public void testOldSamplesAreIgnored() {
+        estimator.addSample(0, 0);
+        estimator.addSample(500, 300);
+        estimator.addSample(508, 300);
+
+        assertEquals(0f, estimator.getVelocity(), 0.001f);
+    }
+
+    @Test
+    public void testNoVelocityWithOneSample() {
+        estimator.addSample(0, 10);
+
+        assertEquals(0f, estimator.getVelocity(), 0.001f);
+    }
+}